@@ -0,0 +1,52 @@
+package org.halvors.electrometrics.benchmark;
+
+import net.minecraft.nbt.NBTTagCompound;
+import org.halvors.electrometrics.common.base.MachineType;
+import org.halvors.electrometrics.common.base.RedstoneControlType;
+import org.halvors.electrometrics.common.base.Tier;
+import org.halvors.electrometrics.common.tile.machine.TileEntityElectricityMeter;
+import org.halvors.electrometrics.common.util.energy.EnergyCounter;
+
+import java.util.UUID;
+
+/**
+ * This creates Electricity Meters for the benchmarks, set up the same way as they would be in a world.
+ *
+ * @author halvors
+ */
+public class MeterFactory {
+	/**
+	 * Creates a basic meter with default values and places it in the world.
+	 */
+	public static TileEntityElectricityMeter create(StubWorld world, int x, int y, int z) {
+		TileEntityElectricityMeter meter = new TileEntityElectricityMeter();
+		world.place(meter, x, y, z);
+
+		return meter;
+	}
+
+	/**
+	 * Creates a meter with every synchronized field set to a non-default value, and places it in the world.
+	 */
+	public static TileEntityElectricityMeter createPopulated(StubWorld world, int x, int y, int z) {
+		UUID ownerUUID = UUID.nameUUIDFromBytes("halvors".getBytes());
+		NBTTagCompound nbtTagCompound = new NBTTagCompound();
+
+		nbtTagCompound.setInteger("facing", 2);
+		nbtTagCompound.setInteger("Energy", Tier.Electric.ULTIMATE.getMaxEnergy() / 2);
+		nbtTagCompound.setBoolean("isActive", true);
+		nbtTagCompound.setLong("ownerUUIDM", ownerUUID.getMostSignificantBits());
+		nbtTagCompound.setLong("ownerUUIDL", ownerUUID.getLeastSignificantBits());
+		nbtTagCompound.setString("ownerName", "halvors");
+		nbtTagCompound.setInteger("redstoneControlType", RedstoneControlType.HIGH.ordinal());
+		nbtTagCompound.setInteger("electricTier", Tier.Electric.ULTIMATE.ordinal());
+		new EnergyCounter(Long.MAX_VALUE, 1).writeToNBT(nbtTagCompound, "electricityCount");
+		nbtTagCompound.setInteger("meterId", 1);
+
+		TileEntityElectricityMeter meter = new TileEntityElectricityMeter(MachineType.ULTIMATE_ELECTRICITY_METER, Tier.Electric.ULTIMATE);
+		meter.readFromNBT(nbtTagCompound);
+		world.place(meter, x, y, z);
+
+		return meter;
+	}
+}
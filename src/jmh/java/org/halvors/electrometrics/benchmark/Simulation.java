@@ -0,0 +1,310 @@
+package org.halvors.electrometrics.benchmark;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import net.minecraft.entity.player.EntityPlayerMP;
+import net.minecraft.tileentity.TileEntity;
+import net.minecraftforge.common.util.ForgeDirection;
+import org.halvors.electrometrics.common.ConfigurationManager.Machine;
+import org.halvors.electrometrics.common.ConfigurationManager.Network;
+import org.halvors.electrometrics.common.MeterRegistry;
+import org.halvors.electrometrics.common.base.TransferMode;
+import org.halvors.electrometrics.common.network.ChunkWatcherIndex;
+import org.halvors.electrometrics.common.network.TileSyncManager;
+import org.halvors.electrometrics.common.network.TileUpdateBatcher;
+import org.halvors.electrometrics.common.network.packet.PacketMultipleTileEntity;
+import org.halvors.electrometrics.common.profiler.LatencyHistogram;
+import org.halvors.electrometrics.common.tile.machine.TileEntityElectricityMeter;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This is a headless simulation of large numbers of Electricity Meters, used to reproduce scaling issues without running a
+ * server. Meters are placed in a StubWorld in chains or grids, fed by stub generators and drained by stub consumers, and
+ * ticked the same way the server would, including the synchronization to a list of stub players.
+ *
+ * Options are given as key=value arguments, run it with "gradle simulate -PsimulationArgs='layout=grid meters=10000'":
+ *   layout        chain or grid, defaults to chain.
+ *   meters        the number of meters, defaults to 4096.
+ *   length        the number of meters in every chain, defaults to 16.
+ *   ticks         the number of measured ticks, defaults to 1200.
+ *   warmup        the number of ticks run before measuring, defaults to 200.
+ *   rate          the energy every generator offers per tick, defaults to 1000.
+ *   players       the number of players receiving updates, defaults to 4.
+ *   viewDistance  the view distance of the players in chunks, defaults to 10.
+ *   syncInterval  the ticks between synchronizations, defaults to 5.
+ *   mode          the TransferMode of the meters, defaults to push. Chains of meters don't move energy when pulling.
+ *
+ * @author halvors
+ */
+public class Simulation {
+	private final StubWorld world = StubWorld.create();
+
+	// All TileEntities that tick, in the order they are ticked.
+	private final List<TileEntity> tiles = new ArrayList<>();
+
+	private final List<TileEntityElectricityMeter> meters = new ArrayList<>();
+	private final List<StubEnergyGenerator> generators = new ArrayList<>();
+	private final List<StubEnergyReceiver> consumers = new ArrayList<>();
+
+	// The time spent ticking TileEntities, and synchronizing them, every tick.
+	private final LatencyHistogram tileTimes = new LatencyHistogram();
+	private final LatencyHistogram networkTimes = new LatencyHistogram();
+
+	private final ByteBuf buffer = Unpooled.buffer();
+	private final Map<EntityPlayerMP, PacketMultipleTileEntity> batches;
+
+	private long packets;
+	private long packetBytes;
+
+	@SuppressWarnings("unchecked")
+	private Simulation() throws Exception {
+		// The batches are taken before they are sent, as the stub players have no connection.
+		Field batchesField = TileUpdateBatcher.class.getDeclaredField("batches");
+		batchesField.setAccessible(true);
+
+		batches = (Map<EntityPlayerMP, PacketMultipleTileEntity>) batchesField.get(null);
+	}
+
+	public static void main(String[] args) throws Exception {
+		Map<String, String> options = new HashMap<>();
+
+		for (String arg : args) {
+			int index = arg.indexOf('=');
+
+			if (index < 0) {
+				throw new IllegalArgumentException("Options must be given as key=value, got '" + arg + "'.");
+			}
+
+			options.put(arg.substring(0, index), arg.substring(index + 1));
+		}
+
+		String layout = getOption(options, "layout", "chain");
+		int meterCount = Integer.parseInt(getOption(options, "meters", "4096"));
+		int length = Integer.parseInt(getOption(options, "length", "16"));
+		int ticks = Integer.parseInt(getOption(options, "ticks", "1200"));
+		int warmup = Integer.parseInt(getOption(options, "warmup", "200"));
+		int rate = Integer.parseInt(getOption(options, "rate", "1000"));
+		int players = Integer.parseInt(getOption(options, "players", "4"));
+		int viewDistance = Integer.parseInt(getOption(options, "viewDistance", "10"));
+
+		Network.syncInterval = Integer.parseInt(getOption(options, "syncInterval", "5"));
+		Machine.transferMode = TransferMode.getFromName(getOption(options, "mode", "push"));
+
+		Simulation simulation = new Simulation();
+
+		switch (layout) {
+			case "chain":
+				simulation.buildChains(meterCount, length, rate);
+				break;
+
+			case "grid":
+				simulation.buildGrid(meterCount, rate);
+				break;
+
+			default:
+				throw new IllegalArgumentException("Unknown layout '" + layout + "', must be chain or grid.");
+		}
+
+		simulation.addPlayers(players, viewDistance);
+
+		System.out.println("Simulating " + simulation.meters.size() + " meters in a " + layout + " layout using " + Machine.transferMode.getDisplay().toLowerCase() + " mode, " + simulation.tiles.size() + " ticking tiles.");
+
+		simulation.run(warmup);
+		simulation.resetMeasurements();
+		simulation.run(ticks);
+		simulation.printReport(ticks);
+	}
+
+	private static String getOption(Map<String, String> options, String name, String defaultValue) {
+		String value = options.get(name);
+
+		return value != null ? value : defaultValue;
+	}
+
+	/**
+	 * Builds rows of meters along the x axis, every row being fed by one generator and drained by one consumer.
+	 */
+	private void buildChains(int meterCount, int length, int rate) {
+		int rows = (meterCount + length - 1) / length;
+
+		for (int z = 0; z < rows; z++) {
+			buildRow(z, Math.min(length, meterCount - z * length), rate, false);
+		}
+	}
+
+	/**
+	 * Builds a square of meters, where every row is a chain and every meter is also fed by a generator above it, so the
+	 * energy accumulates along the rows until the transfer limit of the meters is reached.
+	 */
+	private void buildGrid(int meterCount, int rate) {
+		int side = (int) Math.ceil(Math.sqrt(meterCount));
+
+		for (int z = 0; z < side && z * side < meterCount; z++) {
+			buildRow(z, Math.min(side, meterCount - z * side), rate, true);
+		}
+	}
+
+	private void buildRow(int z, int length, int rate, boolean isFedFromAbove) {
+		int facing = getFacing(ForgeDirection.EAST);
+
+		add(new StubEnergyGenerator(ForgeDirection.EAST, rate), 0, 64, z);
+
+		for (int x = 1; x <= length; x++) {
+			if (isFedFromAbove) {
+				add(new StubEnergyGenerator(ForgeDirection.DOWN, rate), x, 65, z);
+			}
+
+			TileEntityElectricityMeter meter = new TileEntityElectricityMeter();
+			meter.setFacing(facing);
+			add(meter, x, 64, z);
+		}
+
+		add(new StubEnergyReceiver(), length + 1, 64, z);
+	}
+
+	private void add(TileEntity tileEntity, int x, int y, int z) {
+		world.place(tileEntity, x, y, z);
+
+		// The same check as the world does when a TileEntity is added.
+		if (tileEntity.canUpdate()) {
+			tiles.add(tileEntity);
+		}
+
+		if (tileEntity instanceof TileEntityElectricityMeter) {
+			meters.add((TileEntityElectricityMeter) tileEntity);
+		} else if (tileEntity instanceof StubEnergyGenerator) {
+			generators.add((StubEnergyGenerator) tileEntity);
+		} else if (tileEntity instanceof StubEnergyReceiver) {
+			consumers.add((StubEnergyReceiver) tileEntity);
+		}
+	}
+
+	/**
+	 * Spreads the players evenly along the z axis of the layout, so that together they see most of it.
+	 */
+	private void addPlayers(int players, int viewDistance) {
+		int depth = 0;
+
+		for (TileEntity tileEntity : meters) {
+			depth = Math.max(depth, tileEntity.zCoord + 1);
+		}
+
+		for (int i = 0; i < players; i++) {
+			ChunkWatcherIndex.update(Stubs.createPlayer(world, i + 1), 0, (i * depth / players) >> 4, viewDistance);
+		}
+	}
+
+	/**
+	 * Returns the facing making a meter extract energy to the given side.
+	 */
+	private static int getFacing(ForgeDirection output) {
+		for (ForgeDirection direction : ForgeDirection.VALID_DIRECTIONS) {
+			if (direction.getRotation(ForgeDirection.UP) == output) {
+				return direction.ordinal();
+			}
+		}
+
+		throw new IllegalArgumentException("No facing extracts energy to " + output + ".");
+	}
+
+	private void run(int ticks) {
+		for (int tick = 0; tick < ticks; tick++) {
+			long startTime = System.nanoTime();
+
+			world.tick();
+
+			for (TileEntity tileEntity : tiles) {
+				tileEntity.updateEntity();
+			}
+
+			// The same as the MeterRegistry does, the meters are not registered since they are never validated.
+			if (tick % MeterRegistry.CLOSE_OUT_INTERVAL == 0) {
+				for (TileEntityElectricityMeter meter : meters) {
+					meter.closeOut();
+				}
+			}
+
+			long tileTime = System.nanoTime();
+
+			TileSyncManager.onServerTick();
+			sendBatches();
+
+			long endTime = System.nanoTime();
+
+			tileTimes.record(tileTime - startTime);
+			networkTimes.record(endTime - tileTime);
+		}
+	}
+
+	/**
+	 * Encodes the batches the same way they would be sent, and counts them.
+	 */
+	private void sendBatches() {
+		for (PacketMultipleTileEntity batch : batches.values()) {
+			if (!batch.isEmpty()) {
+				buffer.clear();
+				batch.toBytes(buffer);
+
+				packets++;
+				packetBytes += buffer.readableBytes();
+			}
+		}
+
+		batches.clear();
+	}
+
+	private void resetMeasurements() {
+		tileTimes.reset();
+		networkTimes.reset();
+		packets = 0;
+		packetBytes = 0;
+	}
+
+	private void printReport(int ticks) {
+		long generated = 0;
+		long consumed = 0;
+		long stored = 0;
+		double counted = 0;
+		int sleeping = 0;
+
+		for (StubEnergyGenerator generator : generators) {
+			generated += generator.getEnergyGenerated();
+		}
+
+		for (StubEnergyReceiver consumer : consumers) {
+			consumed += consumer.getEnergyReceived();
+		}
+
+		for (TileEntityElectricityMeter meter : meters) {
+			stored += meter.getStorage().getEnergyStored();
+			counted += meter.getElectricityCount().doubleValue();
+
+			if (meter.isSleeping()) {
+				sleeping++;
+			}
+		}
+
+		System.out.println("Ticks:");
+		printTimes("  tiles", tileTimes);
+		printTimes("  network", networkTimes);
+		System.out.println("Energy (including warmup):");
+		System.out.println("  generated " + generated + " RF, consumed " + consumed + " RF, stored " + stored + " RF");
+		System.out.println("  balance " + (generated - consumed - stored) + " RF" + (generated == consumed + stored ? " (conserved)" : " (NOT CONSERVED)"));
+		System.out.println("  counted by meters " + String.format("%.0f", counted) + " RF, " + sleeping + " of " + meters.size() + " meters sleeping");
+		System.out.println("Packets:");
+		System.out.println("  " + packets + " packets, " + packetBytes + " bytes, " + String.format("%.2f", (double) packets / ticks) + " packets and " + String.format("%.1f", (double) packetBytes / ticks) + " bytes per tick");
+	}
+
+	private static void printTimes(String name, LatencyHistogram histogram) {
+		System.out.println(String.format("%s: mean %.3f ms, p50 %.3f ms, p99 %.3f ms, max %.3f ms", name,
+				histogram.getMean() / 1000000D,
+				histogram.getPercentile(50) / 1000000D,
+				histogram.getPercentile(99) / 1000000D,
+				histogram.getMax() / 1000000D));
+	}
+}
@@ -0,0 +1,74 @@
+package org.halvors.electrometrics.benchmark;
+
+import cofh.api.energy.IEnergyProvider;
+import cofh.api.energy.IEnergyReceiver;
+import net.minecraft.tileentity.TileEntity;
+import net.minecraftforge.common.util.ForgeDirection;
+
+/**
+ * This is an IEnergyProvider pushing a fixed amount of energy to one side every tick, and counting what was accepted.
+ * It generates energy out of nothing, so everything it counts has to end up somewhere else.
+ *
+ * @author halvors
+ */
+public class StubEnergyGenerator extends TileEntity implements IEnergyProvider {
+	// The side energy is pushed to.
+	private final ForgeDirection output;
+
+	// The energy offered every tick.
+	private final int rate;
+
+	// The energy accepted so far.
+	private long energyGenerated;
+
+	public StubEnergyGenerator(ForgeDirection output, int rate) {
+		this.output = output;
+		this.rate = rate;
+	}
+
+	@Override
+	public void updateEntity() {
+		TileEntity tileEntity = worldObj.getTileEntity(xCoord + output.offsetX, yCoord + output.offsetY, zCoord + output.offsetZ);
+
+		if (tileEntity instanceof IEnergyReceiver) {
+			energyGenerated += ((IEnergyReceiver) tileEntity).receiveEnergy(output.getOpposite(), rate, false);
+		}
+	}
+
+	@Override
+	public int extractEnergy(ForgeDirection from, int maxExtract, boolean simulate) {
+		if (from != output) {
+			return 0;
+		}
+
+		int energyExtracted = Math.min(rate, maxExtract);
+
+		if (!simulate) {
+			energyGenerated += energyExtracted;
+		}
+
+		return energyExtracted;
+	}
+
+	@Override
+	public int getEnergyStored(ForgeDirection from) {
+		return rate;
+	}
+
+	@Override
+	public int getMaxEnergyStored(ForgeDirection from) {
+		return rate;
+	}
+
+	@Override
+	public boolean canConnectEnergy(ForgeDirection from) {
+		return from == output;
+	}
+
+	/**
+	 * Returns the energy accepted so far.
+	 */
+	public long getEnergyGenerated() {
+		return energyGenerated;
+	}
+}
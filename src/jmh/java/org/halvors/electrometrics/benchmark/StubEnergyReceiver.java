@@ -0,0 +1,64 @@
+package org.halvors.electrometrics.benchmark;
+
+import cofh.api.energy.IEnergyReceiver;
+import net.minecraft.tileentity.TileEntity;
+import net.minecraftforge.common.util.ForgeDirection;
+
+/**
+ * This is an IEnergyReceiver consuming up to a fixed amount of energy every call, and counting what it has consumed.
+ *
+ * @author halvors
+ */
+public class StubEnergyReceiver extends TileEntity implements IEnergyReceiver {
+	// The most energy accepted by a single call.
+	private final int maxReceive;
+
+	// The energy accepted so far.
+	private long energyReceived;
+
+	public StubEnergyReceiver() {
+		this(Integer.MAX_VALUE);
+	}
+
+	public StubEnergyReceiver(int maxReceive) {
+		this.maxReceive = maxReceive;
+	}
+
+	@Override
+	public int receiveEnergy(ForgeDirection from, int maxReceive, boolean simulate) {
+		int energyReceived = Math.min(this.maxReceive, maxReceive);
+
+		if (!simulate) {
+			this.energyReceived += energyReceived;
+		}
+
+		return energyReceived;
+	}
+
+	@Override
+	public int getEnergyStored(ForgeDirection from) {
+		return 0;
+	}
+
+	@Override
+	public int getMaxEnergyStored(ForgeDirection from) {
+		return maxReceive;
+	}
+
+	@Override
+	public boolean canConnectEnergy(ForgeDirection from) {
+		return true;
+	}
+
+	@Override
+	public boolean canUpdate() {
+		return false;
+	}
+
+	/**
+	 * Returns the energy accepted so far.
+	 */
+	public long getEnergyReceived() {
+		return energyReceived;
+	}
+}
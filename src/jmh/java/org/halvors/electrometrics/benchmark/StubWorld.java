@@ -0,0 +1,161 @@
+package org.halvors.electrometrics.benchmark;
+
+import net.minecraft.block.Block;
+import net.minecraft.entity.Entity;
+import net.minecraft.init.Blocks;
+import net.minecraft.tileentity.TileEntity;
+import net.minecraft.util.LongHashMap;
+import net.minecraft.world.World;
+import net.minecraft.world.WorldProvider;
+import net.minecraft.world.WorldProviderSurface;
+import net.minecraft.world.WorldSettings;
+import net.minecraft.world.chunk.IChunkProvider;
+import org.halvors.electrometrics.Electrometrics;
+
+import java.lang.reflect.Field;
+
+/**
+ * This is a World that only knows about the TileEntities placed in it, used to run tiles outside of a running server.
+ * It is allocated without running the constructor of World, so anything not overridden here must not be used.
+ *
+ * @author halvors
+ */
+public class StubWorld extends World {
+	// The TileEntities placed in this, keyed by their packed position.
+	private LongHashMap tileEntities;
+
+	// The number of ticks this has been ticked.
+	private long totalWorldTime;
+
+	private StubWorld() {
+		super(null, null, (WorldSettings) null, null, null);
+	}
+
+	/**
+	 * Creates a new server-side StubWorld in the overworld.
+	 */
+	public static StubWorld create() {
+		return create(0);
+	}
+
+	/**
+	 * Creates a new server-side StubWorld.
+	 * @param dimensionId the dimension reported by the provider of the world.
+	 */
+	public static StubWorld create(int dimensionId) {
+		try {
+			StubWorld world = Stubs.allocate(StubWorld.class);
+			world.tileEntities = new LongHashMap();
+
+			WorldProvider provider = new WorldProviderSurface();
+			provider.dimensionId = dimensionId;
+
+			Field providerField = World.class.getDeclaredField("provider");
+			providerField.setAccessible(true);
+			providerField.set(world, provider);
+
+			return world;
+		} catch (Exception e) {
+			throw new IllegalStateException("Unable to allocate a StubWorld.", e);
+		}
+	}
+
+	/**
+	 * Places a TileEntity at the given coordinates, replacing whatever was there.
+	 */
+	public void place(TileEntity tileEntity, int x, int y, int z) {
+		tileEntity.setWorldObj(this);
+		tileEntity.xCoord = x;
+		tileEntity.yCoord = y;
+		tileEntity.zCoord = z;
+
+		tileEntities.add(pack(x, y, z), tileEntity);
+	}
+
+	/**
+	 * Removes and invalidates the TileEntity at the given coordinates, if any.
+	 */
+	public void remove(int x, int y, int z) {
+		TileEntity tileEntity = (TileEntity) tileEntities.remove(pack(x, y, z));
+
+		if (tileEntity != null) {
+			tileEntity.invalidate();
+		}
+	}
+
+	/**
+	 * Advances the time of this by one tick, call this before ticking the TileEntities.
+	 */
+	public void tick() {
+		totalWorldTime++;
+	}
+
+	@Override
+	public long getTotalWorldTime() {
+		return totalWorldTime;
+	}
+
+	@Override
+	public TileEntity getTileEntity(int x, int y, int z) {
+		return (TileEntity) tileEntities.getValueByKey(pack(x, y, z));
+	}
+
+	@Override
+	public Block getBlock(int x, int y, int z) {
+		return getTileEntity(x, y, z) != null ? Electrometrics.blockMachine : Blocks.air;
+	}
+
+	@Override
+	public int getBlockMetadata(int x, int y, int z) {
+		return 0;
+	}
+
+	@Override
+	public boolean blockExists(int x, int y, int z) {
+		return true;
+	}
+
+	@Override
+	public void markBlockForRenderUpdate(int x, int y, int z) {
+
+	}
+
+	@Override
+	public void markBlockForUpdate(int x, int y, int z) {
+
+	}
+
+	@Override
+	public void notifyBlocksOfNeighborChange(int x, int y, int z, Block block) {
+
+	}
+
+	@Override
+	public void markTileEntityChunkModified(int x, int y, int z, TileEntity tileEntity) {
+
+	}
+
+	@Override
+	public void func_147453_f(int x, int y, int z, Block block) {
+
+	}
+
+	@Override
+	protected IChunkProvider createChunkProvider() {
+		return null;
+	}
+
+	@Override
+	protected int func_152379_p() {
+		return 0;
+	}
+
+	@Override
+	public Entity getEntityByID(int id) {
+		return null;
+	}
+
+	private static long pack(int x, int y, int z) {
+		return ((long) (x & 0x3FFFFFF) << 38) | ((long) (y & 0xFFF) << 26) | (z & 0x3FFFFFF);
+	}
+}
@@ -0,0 +1,51 @@
+package org.halvors.electrometrics.benchmark;
+
+import net.minecraft.entity.player.EntityPlayerMP;
+import sun.misc.Unsafe;
+
+import java.lang.reflect.Field;
+
+/**
+ * This creates instances of Minecraft classes that can't be constructed outside of a running server.
+ *
+ * @author halvors
+ */
+public class Stubs {
+	private static final Unsafe unsafe;
+
+	static {
+		try {
+			Field field = Unsafe.class.getDeclaredField("theUnsafe");
+			field.setAccessible(true);
+
+			unsafe = (Unsafe) field.get(null);
+		} catch (Exception e) {
+			throw new ExceptionInInitializerError(e);
+		}
+	}
+
+	/**
+	 * Allocates an instance of the given class without running any constructor, all fields are left at their defaults.
+	 */
+	public static <T> T allocate(Class<T> type) {
+		try {
+			return type.cast(unsafe.allocateInstance(type));
+		} catch (InstantiationException e) {
+			throw new IllegalStateException("Unable to allocate " + type.getName() + ".", e);
+		}
+	}
+
+	/**
+	 * Creates a player that is only usable as a key and for it's dimension, it has no connection.
+	 * @param world the world the player is in.
+	 * @param entityId the unique id of the player, players are compared by it.
+	 */
+	public static EntityPlayerMP createPlayer(StubWorld world, int entityId) {
+		EntityPlayerMP player = allocate(EntityPlayerMP.class);
+		player.setEntityId(entityId);
+		player.worldObj = world;
+		player.dimension = world.provider.dimensionId;
+
+		return player;
+	}
+}
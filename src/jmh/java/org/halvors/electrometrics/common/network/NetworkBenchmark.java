@@ -0,0 +1,148 @@
+package org.halvors.electrometrics.common.network;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.halvors.electrometrics.benchmark.MeterFactory;
+import org.halvors.electrometrics.benchmark.StubWorld;
+import org.halvors.electrometrics.common.base.tile.ITileSynchronizable;
+import org.halvors.electrometrics.common.network.packet.PacketConfiguration;
+import org.halvors.electrometrics.common.network.packet.PacketTileEntity;
+import org.halvors.electrometrics.common.tile.machine.TileEntityElectricityMeter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This benchmarks the encoding and decoding of packets, using a meter with every synchronized field set. Run with the
+ * gc profiler to see the bytes allocated per operation, as "gradle jmh" does.
+ *
+ * @author halvors
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NetworkBenchmark {
+	private TileEntityElectricityMeter meter;
+
+	// The meter the encoded data is decoded into.
+	private TileEntityElectricityMeter receivingMeter;
+
+	// The objects of a configuration and a tile packet, as given to writeObjects().
+	private List<Object> objects;
+
+	private PacketTileEntity tilePacket;
+	private PacketConfiguration configurationPacket;
+
+	// The encoded packets and tile data, as they arrive from the network.
+	private ByteBuf encodedTilePacket;
+	private ByteBuf encodedConfigurationPacket;
+	private ByteBuf encodedTileData;
+
+	// The buffer every encoding benchmark writes to, cleared before every operation.
+	private ByteBuf buffer;
+
+	@Setup
+	public void setup() {
+		StubWorld world = StubWorld.create();
+
+		meter = MeterFactory.createPopulated(world, 0, 64, 0);
+		receivingMeter = MeterFactory.create(world, 1, 64, 0);
+
+		objects = new ArrayList<>();
+		objects.add(true);
+		objects.add(false);
+		objects.add(1.0D);
+		objects.add(2.5D);
+		objects.add(1000);
+		objects.add("halvors");
+		meter.getPacketData(objects);
+
+		tilePacket = new PacketTileEntity(meter);
+		configurationPacket = new PacketConfiguration();
+
+		encodedTilePacket = Unpooled.buffer();
+		tilePacket.toBytes(encodedTilePacket);
+
+		encodedConfigurationPacket = Unpooled.buffer();
+		configurationPacket.toBytes(encodedConfigurationPacket);
+
+		encodedTileData = Unpooled.buffer();
+		meter.writePacketData(new PacketWriter(encodedTileData), ITileSynchronizable.ALL_FIELDS);
+
+		buffer = Unpooled.buffer(256);
+	}
+
+	@Benchmark
+	public ByteBuf writeObjects() {
+		buffer.clear();
+		NetworkHandler.writeObjects(objects, buffer);
+
+		return buffer;
+	}
+
+	@Benchmark
+	public PacketTileEntity tileEntityEncode() {
+		return new PacketTileEntity(meter);
+	}
+
+	@Benchmark
+	public ByteBuf tileEntityToBytes() {
+		buffer.clear();
+		tilePacket.toBytes(buffer);
+
+		return buffer;
+	}
+
+	@Benchmark
+	public PacketTileEntity tileEntityFromBytes() {
+		PacketTileEntity packet = new PacketTileEntity();
+		packet.fromBytes(encodedTilePacket.duplicate());
+
+		// fromBytes() retains a slice sharing the reference count of the encoded packet, the handler would release it.
+		encodedTilePacket.release();
+
+		return packet;
+	}
+
+	@Benchmark
+	public TileEntityElectricityMeter tileEntityReadPacketData() throws Exception {
+		receivingMeter.readPacketData(new PacketReader(encodedTileData.duplicate()), ITileSynchronizable.ALL_FIELDS);
+
+		return receivingMeter;
+	}
+
+	@Benchmark
+	public ByteBuf configurationToBytes() {
+		buffer.clear();
+		configurationPacket.toBytes(buffer);
+
+		return buffer;
+	}
+
+	@Benchmark
+	public PacketConfiguration configurationFromBytes() {
+		PacketConfiguration packet = new PacketConfiguration();
+		packet.fromBytes(encodedConfigurationPacket.duplicate());
+
+		return packet;
+	}
+
+	@Benchmark
+	public List<Object> getPacketData() {
+		return meter.getPacketData(new ArrayList<>());
+	}
+}
@@ -0,0 +1,94 @@
+package org.halvors.electrometrics.common.tile.machine;
+
+import cofh.api.energy.EnergyStorage;
+import net.minecraftforge.common.util.ForgeDirection;
+import org.halvors.electrometrics.benchmark.StubEnergyReceiver;
+import org.halvors.electrometrics.benchmark.StubWorld;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This benchmarks the energy path of the Electricity Meter, from it's EnergyStorage up to distributing energy to a
+ * neighbour. Run with the gc profiler to see the allocation rate, as "gradle jmh" does.
+ *
+ * It lives in the package of the meter to be able to call distributeEnergy() directly.
+ *
+ * @author halvors
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EnergyTransferBenchmark {
+	private EnergyStorage storage;
+	private TileEntityElectricityMeter meter;
+	private StubEnergyReceiver receiver;
+
+	// The sides of the meter energy flows in and out of.
+	private ForgeDirection input;
+	private ForgeDirection output;
+
+	// The amount of energy moved by every operation.
+	private int transfer;
+
+	@Setup
+	public void setup() {
+		StubWorld world = StubWorld.create();
+
+		meter = new TileEntityElectricityMeter();
+		world.place(meter, 0, 64, 0);
+
+		for (ForgeDirection direction : ForgeDirection.VALID_DIRECTIONS) {
+			if (meter.canExtractTo(direction)) {
+				output = direction;
+			}
+		}
+
+		input = output.getOpposite();
+		transfer = meter.getStorage().getMaxExtract();
+
+		receiver = new StubEnergyReceiver();
+		world.place(receiver, output.offsetX, 64 + output.offsetY, output.offsetZ);
+
+		storage = new EnergyStorage(meter.getStorage().getMaxEnergyStored(), transfer);
+	}
+
+	@Benchmark
+	public int energyStorage() {
+		return storage.receiveEnergy(transfer, false) + storage.extractEnergy(transfer, false);
+	}
+
+	@Benchmark
+	public int meterReceiveEnergy() {
+		meter.getStorage().setEnergyStored(0);
+
+		return meter.receiveEnergy(input, transfer, false);
+	}
+
+	@Benchmark
+	public int meterExtractEnergy() {
+		meter.getStorage().setEnergyStored(meter.getStorage().getMaxEnergyStored());
+
+		return meter.extractEnergy(output, transfer, false);
+	}
+
+	@Benchmark
+	public long distributeEnergy() {
+		meter.getStorage().setEnergyStored(meter.getStorage().getMaxEnergyStored());
+		meter.distributeEnergy();
+
+		return receiver.getEnergyReceived();
+	}
+}
@@ -5,6 +5,8 @@ import cpw.mods.fml.common.Mod;
 import cpw.mods.fml.common.SidedProxy;
 import cpw.mods.fml.common.event.FMLInitializationEvent;
 import cpw.mods.fml.common.event.FMLPreInitializationEvent;
+import cpw.mods.fml.common.event.FMLServerStartingEvent;
+import cpw.mods.fml.common.event.FMLServerStoppedEvent;
 import cpw.mods.fml.common.network.NetworkRegistry;
 import cpw.mods.fml.common.registry.GameRegistry;
 import mekanism.api.ItemRetriever;
@@ -12,6 +14,7 @@ import net.minecraft.init.Blocks;
 import net.minecraft.init.Items;
 import net.minecraft.item.Item;
 import net.minecraft.item.ItemStack;
+import net.minecraftforge.common.MinecraftForge;
 import net.minecraftforge.common.config.Configuration;
 import org.apache.logging.log4j.Level;
 import org.apache.logging.log4j.LogManager;
@@ -19,14 +22,28 @@ import org.apache.logging.log4j.Logger;
 import org.halvors.electrometrics.common.CommonProxy;
 import org.halvors.electrometrics.common.ConfigurationManager;
 import org.halvors.electrometrics.common.ConfigurationManager.Integration;
+import org.halvors.electrometrics.common.MeterRegistry;
 import org.halvors.electrometrics.common.Reference;
 import org.halvors.electrometrics.common.Tab;
 import org.halvors.electrometrics.common.base.MachineType;
 import org.halvors.electrometrics.common.base.Tier;
+import org.halvors.electrometrics.common.command.CommandElectrometrics;
 import org.halvors.electrometrics.common.block.BlockMachine;
+import org.halvors.electrometrics.common.event.ChunkEventHandler;
+import org.halvors.electrometrics.common.event.EntityEventHandler;
 import org.halvors.electrometrics.common.event.PlayerEventHandler;
+import org.halvors.electrometrics.common.event.TickEventHandler;
+import org.halvors.electrometrics.common.event.WorldEventHandler;
+import org.halvors.electrometrics.common.history.MeterHistory;
+import org.halvors.electrometrics.common.history.OwnerUsage;
+import org.halvors.electrometrics.common.history.WorldClock;
 import org.halvors.electrometrics.common.item.ItemBlockMachine;
 import org.halvors.electrometrics.common.item.ItemMultimeter;
+import org.halvors.electrometrics.common.network.ChunkWatcherIndex;
+import org.halvors.electrometrics.common.network.TileSubscriptionManager;
+import org.halvors.electrometrics.common.network.TileSyncManager;
+import org.halvors.electrometrics.common.profiler.EnergyAuditor;
+import org.halvors.electrometrics.common.profiler.TileProfiler;
 import org.halvors.electrometrics.common.tile.machine.TileEntityElectricityMeter;
 
 /**
@@ -78,6 +95,13 @@ public class Electrometrics {
 	public void init(FMLInitializationEvent event) {
 		// Register the our EventHandler.
 		FMLCommonHandler.instance().bus().register(new PlayerEventHandler());
+		FMLCommonHandler.instance().bus().register(new TickEventHandler());
+		MinecraftForge.EVENT_BUS.register(new EntityEventHandler());
+		MinecraftForge.EVENT_BUS.register(new ChunkEventHandler());
+		MinecraftForge.EVENT_BUS.register(new WorldEventHandler());
+
+		// Register the handlers of our proxy.
+		proxy.init();
 
 		// Register the proxy as our GuiHandler to NetworkRegistry.
 		NetworkRegistry.INSTANCE.registerGuiHandler(this, proxy);
@@ -92,6 +116,30 @@ public class Electrometrics {
 		logger.log(Level.INFO, "Mekanism integration is " + (Integration.isMekanismEnabled ? "enabled" : "disabled") + ".");
 	}
 
+	@Mod.EventHandler
+	public void serverStarting(FMLServerStartingEvent event) {
+		// Register commands.
+		event.registerServerCommand(new CommandElectrometrics());
+
+		// Start profiling right away if configured to.
+		TileProfiler.setEnabled(ConfigurationManager.General.enableProfiler);
+		EnergyAuditor.setEnabled(ConfigurationManager.General.enableEnergyAudit);
+	}
+
+	@Mod.EventHandler
+	public void serverStopped(FMLServerStoppedEvent event) {
+		// Forget all players and meters, so that nothing is kept between integrated server sessions.
+		ChunkWatcherIndex.clear();
+		TileSyncManager.clear();
+		TileSubscriptionManager.clear();
+		MeterRegistry.clear();
+		WorldClock.clear();
+
+		// Write and close the metering history and owner usage of this world.
+		MeterHistory.close();
+		OwnerUsage.close();
+	}
+
 	private void addItems() {
 		// Register items.
 		GameRegistry.registerItem(itemMultimeter, "itemMultimeter");
@@ -1,11 +1,17 @@
 package org.halvors.electrometrics.client;
 
+import cpw.mods.fml.common.FMLCommonHandler;
 import cpw.mods.fml.common.network.IGuiHandler;
 import cpw.mods.fml.relauncher.Side;
 import cpw.mods.fml.relauncher.SideOnly;
 import net.minecraft.entity.player.EntityPlayer;
 import net.minecraft.world.World;
+import net.minecraftforge.common.MinecraftForge;
+import org.halvors.electrometrics.client.event.ClientTickEventHandler;
+import org.halvors.electrometrics.client.event.DebugOverlayEventHandler;
 import org.halvors.electrometrics.common.CommonProxy;
+import org.halvors.electrometrics.common.ConfigurationManager;
+import org.halvors.electrometrics.common.profiler.TileProfiler;
 import org.halvors.electrometrics.common.tile.TileEntity;
 import org.halvors.electrometrics.common.tile.machine.TileEntityMachine;
 
@@ -16,6 +22,15 @@ import org.halvors.electrometrics.common.tile.machine.TileEntityMachine;
  */
 @SideOnly(Side.CLIENT)
 public class ClientProxy extends CommonProxy implements IGuiHandler {
+	@Override
+	public void init() {
+		FMLCommonHandler.instance().bus().register(new ClientTickEventHandler());
+		MinecraftForge.EVENT_BUS.register(new DebugOverlayEventHandler());
+
+		// Clients of a dedicated server never start a server, so the client-side profiling is started here.
+		TileProfiler.setEnabled(ConfigurationManager.General.enableProfiler);
+	}
+
 	@Override
 	public Object getServerGuiElement(int id, EntityPlayer player, World world, int x, int y, int z) {
 		return null;
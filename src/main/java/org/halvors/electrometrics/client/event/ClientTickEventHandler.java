@@ -0,0 +1,26 @@
+package org.halvors.electrometrics.client.event;
+
+import cpw.mods.fml.common.eventhandler.SubscribeEvent;
+import cpw.mods.fml.common.gameevent.TickEvent.ClientTickEvent;
+import cpw.mods.fml.common.gameevent.TickEvent.Phase;
+import cpw.mods.fml.relauncher.Side;
+import cpw.mods.fml.relauncher.SideOnly;
+import net.minecraft.client.Minecraft;
+import org.halvors.electrometrics.common.network.ClientTileUpdateQueue;
+import org.halvors.electrometrics.common.profiler.TileProfiler;
+
+/**
+ * This is the event handler that handles client tick events.
+ *
+ * @author halvors
+ */
+@SideOnly(Side.CLIENT)
+public class ClientTickEventHandler {
+	@SubscribeEvent
+	public void onClientTickEvent(ClientTickEvent event) {
+		if (event.phase == Phase.END) {
+			TileProfiler.onClientTick();
+			ClientTileUpdateQueue.onClientTick(Minecraft.getMinecraft().theWorld);
+		}
+	}
+}
@@ -0,0 +1,25 @@
+package org.halvors.electrometrics.client.event;
+
+import cpw.mods.fml.common.eventhandler.SubscribeEvent;
+import cpw.mods.fml.relauncher.Side;
+import cpw.mods.fml.relauncher.SideOnly;
+import net.minecraft.client.Minecraft;
+import net.minecraftforge.client.event.RenderGameOverlayEvent;
+import org.halvors.electrometrics.common.network.PacketBufferTracker;
+
+/**
+ * This is the event handler that adds our lines to the debug screen.
+ *
+ * @author halvors
+ */
+@SideOnly(Side.CLIENT)
+public class DebugOverlayEventHandler {
+	@SubscribeEvent
+	public void onRenderGameOverlayText(RenderGameOverlayEvent.Text event) {
+		if (Minecraft.getMinecraft().gameSettings.showDebugInfo) {
+			// In single player the integrated server shares these counters.
+			event.left.add("");
+			event.left.add("Electrometrics packet buffers: " + PacketBufferTracker.getRetained() + " retained, " + PacketBufferTracker.getReleased() + " released, " + PacketBufferTracker.getOutstanding() + " outstanding");
+		}
+	}
+}
@@ -6,14 +6,14 @@ import net.minecraft.util.ResourceLocation;
 import org.halvors.electrometrics.client.gui.IGui;
 import org.halvors.electrometrics.client.sound.SoundHandler;
 import org.halvors.electrometrics.common.base.RedstoneControlType;
-import org.halvors.electrometrics.common.base.tile.ITileNetworkable;
+import org.halvors.electrometrics.common.base.tile.ITileSynchronizable;
 import org.halvors.electrometrics.common.base.tile.ITileRedstoneControl;
 import org.halvors.electrometrics.common.network.NetworkHandler;
 import org.halvors.electrometrics.common.network.packet.PacketTileEntity;
 import org.halvors.electrometrics.common.tile.TileEntity;
 
 @SideOnly(Side.CLIENT)
-public class GuiRedstoneControl<T extends TileEntity & ITileNetworkable & ITileRedstoneControl> extends GuiComponent implements IGuiComponent {
+public class GuiRedstoneControl<T extends TileEntity & ITileSynchronizable & ITileRedstoneControl> extends GuiComponent implements IGuiComponent {
 	private final T tileEntity;
 
 	public GuiRedstoneControl(IGui gui, T tileEntity, ResourceLocation defaultResource) {
@@ -80,7 +80,7 @@ public class GuiRedstoneControl<T extends TileEntity & ITileNetworkable & ITileR
 					tileEntity.setControlType(RedstoneControlType.values()[ordinalToSet]);
 
 					// Send a update packet to the server.
-					NetworkHandler.sendToServer(new PacketTileEntity(tileEntity));
+					NetworkHandler.sendToServer(new PacketTileEntity(tileEntity, tileEntity.getClientFields()));
 				}
 				break;
 		}
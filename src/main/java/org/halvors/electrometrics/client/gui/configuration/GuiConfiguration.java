@@ -11,6 +11,7 @@ import org.halvors.electrometrics.client.gui.configuration.category.CategoryEntr
 import org.halvors.electrometrics.client.gui.configuration.category.CategoryEntryGeneral;
 import org.halvors.electrometrics.client.gui.configuration.category.CategoryEntryIntegration;
 import org.halvors.electrometrics.client.gui.configuration.category.CategoryEntryMachine;
+import org.halvors.electrometrics.client.gui.configuration.category.CategoryEntryNetwork;
 import org.halvors.electrometrics.common.ConfigurationManager;
 import org.halvors.electrometrics.common.Reference;
 import org.halvors.electrometrics.common.util.LanguageUtils;
@@ -25,6 +26,7 @@ public class GuiConfiguration extends GuiConfig {
         register(Configuration.CATEGORY_GENERAL, CategoryEntryGeneral.class);
         register(ConfigurationManager.CATEGORY_MACHINE, CategoryEntryMachine.class);
         register(ConfigurationManager.CATEGORY_INTEGRATION, CategoryEntryIntegration.class);
+        register(ConfigurationManager.CATEGORY_NETWORK, CategoryEntryNetwork.class);
         register(ConfigurationManager.CATEGORY_CLIENT, CategoryEntryClient.class);
     }
 
@@ -7,11 +7,12 @@ import org.halvors.electrometrics.client.gui.GuiComponentContainerScreen;
 import org.halvors.electrometrics.client.gui.component.*;
 import org.halvors.electrometrics.common.base.tile.ITileOwnable;
 import org.halvors.electrometrics.common.network.NetworkHandler;
-import org.halvors.electrometrics.common.network.packet.PacketRequestData;
+import org.halvors.electrometrics.common.network.packet.PacketSubscription;
 import org.halvors.electrometrics.common.network.packet.PacketTileEntity;
 import org.halvors.electrometrics.common.tile.machine.TileEntityElectricityMeter;
 import org.halvors.electrometrics.common.util.LanguageUtils;
 import org.halvors.electrometrics.common.util.PlayerUtils;
+import org.halvors.electrometrics.common.util.energy.EnergyCounter;
 import org.halvors.electrometrics.common.util.energy.EnergyUtils;
 
 import java.util.ArrayList;
@@ -25,7 +26,8 @@ import java.util.List;
  */
 @SideOnly(Side.CLIENT)
 public class GuiElectricityMeter extends GuiComponentContainerScreen {
-	private int ticker = 0;
+	// Whether or not this has subscribed to updates, initGui() is called again whenever the window is resized.
+	private boolean isSubscribed;
 
 	public GuiElectricityMeter(final TileEntityElectricityMeter tileEntity) {
 		super(tileEntity);
@@ -40,11 +42,13 @@ public class GuiElectricityMeter extends GuiComponentContainerScreen {
 			}
 		}, this, defaultResource));
 
-		// TODO: Get currect energy usage here.
 		components.add(new GuiEnergyInfo(new IInfoHandler() {
 			@Override
 			public List<String> getInfo() {
 				List<String> list = new ArrayList<>();
+				list.add(LanguageUtils.localize("gui.using") + ": " + EnergyUtils.getEnergyDisplay(tileEntity.getCurrentThroughput()) + "/t");
+				list.add(LanguageUtils.localize("gui.average") + ": " + EnergyUtils.getEnergyDisplay(tileEntity.getAverageThroughput()) + "/t");
+				list.add(LanguageUtils.localize("gui.peak") + ": " + EnergyUtils.getEnergyDisplay(tileEntity.getPeakThroughput()) + "/t");
 				list.add(LanguageUtils.localize("gui.stored") + ": " + EnergyUtils.getEnergyDisplay(tileEntity.getStorage().getEnergyStored()));
 				list.add(LanguageUtils.localize("gui.maxOutput") + ": " + EnergyUtils.getEnergyDisplay(tileEntity.getElectricTier().getMaxTransfer()));
 
@@ -77,6 +81,23 @@ public class GuiElectricityMeter extends GuiComponentContainerScreen {
 		// Add buttons.
 		buttonList.clear();
 		buttonList.add(resetButton);
+
+		// Subscribe to updates from the server-side TileEntity while this is open.
+		if (!isSubscribed && tileEntity instanceof TileEntityElectricityMeter) {
+			NetworkHandler.sendToServer(new PacketSubscription((TileEntityElectricityMeter) tileEntity, true));
+			isSubscribed = true;
+		}
+	}
+
+	@Override
+	public void onGuiClosed() {
+		super.onGuiClosed();
+
+		// Unsubscribe from updates from the server-side TileEntity.
+		if (isSubscribed) {
+			NetworkHandler.sendToServer(new PacketSubscription((TileEntityElectricityMeter) tileEntity, false));
+			isSubscribed = false;
+		}
 	}
 
 	@Override
@@ -88,10 +109,10 @@ public class GuiElectricityMeter extends GuiComponentContainerScreen {
 
 			switch (guiButton.id) {
 				case 0:
-					tileEntityElectricityMeter.setElectricityCount(0);
+					tileEntityElectricityMeter.setElectricityCount(new EnergyCounter());
 
 					// Update the server-side TileEntity.
-					NetworkHandler.sendToServer(new PacketTileEntity(tileEntityElectricityMeter));
+					NetworkHandler.sendToServer(new PacketTileEntity(tileEntityElectricityMeter, tileEntityElectricityMeter.getClientFields()));
 					break;
 			}
 		}
@@ -103,8 +124,9 @@ public class GuiElectricityMeter extends GuiComponentContainerScreen {
 			TileEntityElectricityMeter tileEntityElectricityMeter = (TileEntityElectricityMeter) tileEntity;
 
 			// Formatting energy to the correct energy unit.
-			String measuredEnergy = EnergyUtils.getEnergyDisplay(tileEntityElectricityMeter.getElectricityCount());
+			String measuredEnergy = EnergyUtils.getEnergyDisplay(tileEntityElectricityMeter.getElectricityCount().doubleValue());
 			String storedEnergy = EnergyUtils.getEnergyDisplay(tileEntityElectricityMeter.getStorage().getEnergyStored());
+			String usedEnergy = EnergyUtils.getEnergyDisplay(tileEntityElectricityMeter.getCurrentThroughput()) + "/t";
 
             int x = (xSize / 2) - 64;
             int y = ySize / 2;
@@ -116,13 +138,9 @@ public class GuiElectricityMeter extends GuiComponentContainerScreen {
 			drawString(LanguageUtils.localize("gui.stored") + ":", x, y);
 			drawString(storedEnergy, x + 64, y);
 
-			if (ticker == 0) {
-				ticker = 5;
-				// Request the latest data from the server-side TileEntity.
-				NetworkHandler.sendToServer(new PacketRequestData(tileEntityElectricityMeter));
-			} else {
-				ticker--;
-			}
+			// Current energy usage.
+			drawString(LanguageUtils.localize("gui.using") + ":", x, y + 12);
+			drawString(usedEnergy, x + 64, y + 12);
 		}
 
 		super.drawGuiScreenForegroundLayer(mouseX, mouseY);
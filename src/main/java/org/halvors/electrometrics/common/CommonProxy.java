@@ -10,6 +10,13 @@ import net.minecraft.world.World;
  * @author halvors
  */
 public class CommonProxy implements IGuiHandler {
+	/**
+	 * Called when the mod is initialized, registers anything that only exists on one side.
+	 */
+	public void init() {
+
+	}
+
 	@Override
 	public Object getServerGuiElement(int id, EntityPlayer player, World world, int x, int y, int z) {
 		return null;
@@ -3,6 +3,7 @@ package org.halvors.electrometrics.common;
 import cpw.mods.fml.common.Loader;
 import net.minecraftforge.common.config.Configuration;
 import org.halvors.electrometrics.common.base.MachineType;
+import org.halvors.electrometrics.common.base.TransferMode;
 import org.halvors.electrometrics.common.util.energy.EnergyUnit;
 
 import java.util.HashMap;
@@ -11,11 +12,15 @@ import java.util.Map;
 public class ConfigurationManager {
     public static final String CATEGORY_MACHINE = "machine";
     public static final String CATEGORY_INTEGRATION = "integration";
+    public static final String CATEGORY_NETWORK = "network";
     public static final String CATEGORY_CLIENT = "client";
 
     public static class General {
         public static boolean enableUpdateNotice;
         public static boolean destroyDisabledBlocks;
+        public static boolean enableProfiler;
+        public static int profilerLogInterval;
+        public static boolean enableEnergyAudit;
 
         public static double toJoules;
         public static double toMinecraftJoules;
@@ -25,6 +30,8 @@ public class ConfigurationManager {
     public static class Machine {
         private static final Map<MachineType, Boolean> machines = new HashMap<>();
 
+        public static TransferMode transferMode = TransferMode.PUSH;
+
         public static boolean isEnabled(MachineType machineType) {
             return machines.get(machineType) != null && machines.get(machineType);
         }
@@ -38,6 +45,11 @@ public class ConfigurationManager {
         public static boolean isMekanismEnabled;
 }
 
+    public static class Network {
+        public static int syncInterval;
+        public static int subscriptionInterval;
+    }
+
     public static class Client {
         public static EnergyUnit energyUnit;
     }
@@ -48,6 +60,9 @@ public class ConfigurationManager {
         // General.
         General.enableUpdateNotice = configuration.get(Configuration.CATEGORY_GENERAL, "EnableUpdateNotice", true).getBoolean();
         General.destroyDisabledBlocks = configuration.get(Configuration.CATEGORY_GENERAL, "DestroyDisabledBlocks", true).getBoolean();
+        General.enableProfiler = configuration.get(Configuration.CATEGORY_GENERAL, "EnableProfiler", false, "Whether or not to measure the time spent in our blocks from startup, it can also be started with a command.").getBoolean();
+        General.profilerLogInterval = Math.max(0, configuration.get(Configuration.CATEGORY_GENERAL, "ProfilerLogInterval", 300, "The number of seconds between two profiler reports in the log, 0 to disable them.").getInt());
+        General.enableEnergyAudit = configuration.get(Configuration.CATEGORY_GENERAL, "EnableEnergyAudit", false, "Whether or not to verify that our blocks conserve energy every tick and log violations, it can also be started with a command.").getBoolean();
 
         General.toJoules = configuration.get(Configuration.CATEGORY_GENERAL, "RFToJoules", 2.5).getDouble();
         General.toMinecraftJoules = configuration.get(Configuration.CATEGORY_GENERAL, "RFToMinecraftJoules", 0.1).getDouble();
@@ -58,9 +73,15 @@ public class ConfigurationManager {
             Machine.setEntry(machineType, configuration.get(CATEGORY_MACHINE, machineType.getUnlocalizedName() + "Enabled", true).getBoolean());
         }
 
+        Machine.transferMode = TransferMode.getFromName(configuration.get(CATEGORY_MACHINE, "TransferMode", TransferMode.PUSH.name(), "How meters pass energy on, PUSH sends it to the next block every tick, PULL only lets the next block extract it and PASS_THROUGH hands it to the next block as it's received. Both PULL and PASS_THROUGH never tick.", new String[] { TransferMode.PUSH.name(), TransferMode.PULL.name(), TransferMode.PASS_THROUGH.name() }).getString());
+
         // Integration.
         Integration.isMekanismEnabled = configuration.get(CATEGORY_INTEGRATION, "Mekanism", Loader.isModLoaded("Mekanism")).getBoolean();
 
+        // Network.
+        Network.syncInterval = Math.max(1, configuration.get(CATEGORY_NETWORK, "SyncInterval", 5, "The minimum number of ticks between two synchronizations of the same block.").getInt());
+        Network.subscriptionInterval = Math.max(1, configuration.get(CATEGORY_NETWORK, "SubscriptionInterval", 4, "The number of ticks between two updates of a block to players that have it's GUI open.").getInt());
+
         // Client.
         Client.energyUnit = EnergyUnit.getUnitFromSymbol(configuration.get(CATEGORY_CLIENT, "EnergyUnitType", EnergyUnit.JOULES.getName(), "The default energy system to display.", EnergyUnit.getNames().toArray(new String[EnergyUnit.getNames().size()])).getString());
 
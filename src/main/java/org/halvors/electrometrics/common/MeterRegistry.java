@@ -0,0 +1,235 @@
+package org.halvors.electrometrics.common;
+
+import net.minecraft.util.IntHashMap;
+import net.minecraft.util.LongHashMap;
+import org.halvors.electrometrics.Electrometrics;
+import org.halvors.electrometrics.common.history.MeterHistory;
+import org.halvors.electrometrics.common.tile.machine.TileEntityElectricityMeter;
+import org.halvors.electrometrics.common.util.location.Location;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * This is the MeterRegistry which keeps track of all loaded meters on the server, so that they can be found by id, by
+ * location or by owner without scanning the loaded TileEntities. Meters register themselves when they are validated, and
+ * unregister when they are invalidated or their chunk is unloaded. It also closes out the meters that don't tick once a
+ * second.
+ *
+ * @author halvors
+ */
+public class MeterRegistry {
+	// The ticks between closing out the meters that don't tick.
+	public static final int CLOSE_OUT_INTERVAL = 20;
+
+	// The ticks since the meters were last closed out.
+	private static int ticks;
+
+	// All loaded meters, in the order they were loaded.
+	private static final Set<TileEntityElectricityMeter> meters = new LinkedHashSet<>();
+
+	// The meters by their id, only those that have been given one.
+	private static final IntHashMap metersById = new IntHashMap();
+
+	// The meters by dimension and then by position.
+	private static final IntHashMap dimensions = new IntHashMap();
+
+	// The meters by the UUID of their owner.
+	private static final Map<UUID, Set<TileEntityElectricityMeter>> metersByOwner = new HashMap<>();
+
+	/**
+	 * Adds a meter to the registry, replacing any meter that was registered at the same location.
+	 * @param meter the meter to add.
+	 */
+	public static void register(TileEntityElectricityMeter meter) {
+		int dimensionId = meter.getWorldObj().provider.dimensionId;
+		LongHashMap positions = (LongHashMap) dimensions.lookup(dimensionId);
+
+		if (positions == null) {
+			positions = new LongHashMap();
+			dimensions.addKey(dimensionId, positions);
+		}
+
+		long key = getPositionKey(meter.xCoord, meter.yCoord, meter.zCoord);
+		TileEntityElectricityMeter previousMeter = (TileEntityElectricityMeter) positions.getValueByKey(key);
+
+		if (previousMeter == meter) {
+			return;
+		} else if (previousMeter != null) {
+			unregister(previousMeter);
+		}
+
+		// Before ids were reserved on disk a crash could give one out twice, the meter that didn't get it first gets a new one.
+		if (meter.getMeterId() != 0 && !isIdOwner(meter)) {
+			Electrometrics.getInstance().getLogger().warn("Meter at " + new Location(meter) + " shares it's id " + meter.getMeterId() + " with another meter, giving it a new id.");
+
+			meter.clearMeterId();
+		}
+
+		positions.add(key, meter);
+		meters.add(meter);
+		addToId(meter);
+		addToOwner(meter, meter.getOwnerUUID());
+	}
+
+	/**
+	 * Removes a meter from the registry.
+	 * @param meter the meter to remove.
+	 */
+	public static void unregister(TileEntityElectricityMeter meter) {
+		if (!meters.remove(meter)) {
+			return;
+		}
+
+		LongHashMap positions = (LongHashMap) dimensions.lookup(meter.getWorldObj().provider.dimensionId);
+
+		if (positions != null) {
+			long key = getPositionKey(meter.xCoord, meter.yCoord, meter.zCoord);
+
+			if (positions.getValueByKey(key) == meter) {
+				positions.remove(key);
+			}
+		}
+
+		if (meter.getMeterId() != 0 && metersById.lookup(meter.getMeterId()) == meter) {
+			metersById.removeObject(meter.getMeterId());
+		}
+
+		removeFromOwner(meter, meter.getOwnerUUID());
+	}
+
+	/**
+	 * Called when a registered meter has been given it's id.
+	 * @param meter the meter.
+	 */
+	public static void onIdAssigned(TileEntityElectricityMeter meter) {
+		if (meters.contains(meter)) {
+			addToId(meter);
+		}
+	}
+
+	/**
+	 * Called when a registered meter has changed owner.
+	 * @param meter the meter.
+	 * @param previousOwnerUUID the UUID of the previous owner, or null if it had none.
+	 */
+	public static void onOwnerChanged(TileEntityElectricityMeter meter, UUID previousOwnerUUID) {
+		if (meters.contains(meter)) {
+			removeFromOwner(meter, previousOwnerUUID);
+			addToOwner(meter, meter.getOwnerUUID());
+		}
+	}
+
+	/**
+	 * Returns the loaded meter with the given id, or null if there is none.
+	 */
+	public static TileEntityElectricityMeter getMeter(int meterId) {
+		return (TileEntityElectricityMeter) metersById.lookup(meterId);
+	}
+
+	/**
+	 * Returns the loaded meter at the given location, or null if there is none.
+	 */
+	public static TileEntityElectricityMeter getMeter(int dimensionId, int x, int y, int z) {
+		LongHashMap positions = (LongHashMap) dimensions.lookup(dimensionId);
+
+		return positions != null ? (TileEntityElectricityMeter) positions.getValueByKey(getPositionKey(x, y, z)) : null;
+	}
+
+	/**
+	 * Returns all loaded meters, the returned collection must not be modified.
+	 */
+	public static Collection<TileEntityElectricityMeter> getMeters() {
+		return Collections.unmodifiableSet(meters);
+	}
+
+	/**
+	 * Returns all loaded meters owned by a player, the returned collection must not be modified.
+	 */
+	public static Collection<TileEntityElectricityMeter> getMeters(UUID ownerUUID) {
+		Set<TileEntityElectricityMeter> ownerMeters = metersByOwner.get(ownerUUID);
+
+		return ownerMeters != null ? Collections.unmodifiableSet(ownerMeters) : Collections.<TileEntityElectricityMeter>emptySet();
+	}
+
+	/**
+	 * Called at the end of every server tick, closes out the meters that don't tick once every CLOSE_OUT_INTERVAL ticks.
+	 */
+	public static void onServerTick() {
+		if (++ticks >= CLOSE_OUT_INTERVAL) {
+			ticks = 0;
+
+			for (TileEntityElectricityMeter meter : meters) {
+				meter.closeOut();
+			}
+		}
+	}
+
+	public static void clear() {
+		ticks = 0;
+		meters.clear();
+		metersById.clearMap();
+		dimensions.clearMap();
+		metersByOwner.clear();
+	}
+
+	/**
+	 * Packs a block position into a long, 26 bits for x and z and 12 bits for y.
+	 */
+	private static long getPositionKey(int x, int y, int z) {
+		return ((long) x & 0x3FFFFFF) << 38 | ((long) z & 0x3FFFFFF) << 12 | (y & 0xFFF);
+	}
+
+	/**
+	 * Returns whether or not the id of a meter is not held by another loaded meter, nor allocated at another location.
+	 */
+	private static boolean isIdOwner(TileEntityElectricityMeter meter) {
+		Object idMeter = metersById.lookup(meter.getMeterId());
+		Location location = MeterHistory.getLocation(meter.getMeterId());
+
+		if (idMeter != null && idMeter != meter) {
+			return false;
+		}
+
+		return location == null || location.getDimensionId() == meter.getWorldObj().provider.dimensionId &&
+				location.getX() == meter.xCoord && location.getY() == meter.yCoord && location.getZ() == meter.zCoord;
+	}
+
+	private static void addToId(TileEntityElectricityMeter meter) {
+		if (meter.getMeterId() != 0) {
+			metersById.addKey(meter.getMeterId(), meter);
+		}
+	}
+
+	private static void addToOwner(TileEntityElectricityMeter meter, UUID ownerUUID) {
+		if (ownerUUID != null) {
+			Set<TileEntityElectricityMeter> ownerMeters = metersByOwner.get(ownerUUID);
+
+			if (ownerMeters == null) {
+				ownerMeters = new LinkedHashSet<>();
+				metersByOwner.put(ownerUUID, ownerMeters);
+			}
+
+			ownerMeters.add(meter);
+		}
+	}
+
+	private static void removeFromOwner(TileEntityElectricityMeter meter, UUID ownerUUID) {
+		if (ownerUUID != null) {
+			Set<TileEntityElectricityMeter> ownerMeters = metersByOwner.get(ownerUUID);
+
+			if (ownerMeters != null) {
+				ownerMeters.remove(meter);
+
+				if (ownerMeters.isEmpty()) {
+					metersByOwner.remove(ownerUUID);
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,40 @@
+package org.halvors.electrometrics.common.base;
+
+/**
+ * The ways energy can be transferred out of a TileEntity that provides electricity.
+ *
+ * @author halvors
+ */
+public enum TransferMode {
+	// Energy is pushed to the adjacent receivers every tick, committing only what they accepted.
+	PUSH("Push"),
+
+	// Energy is only moved when the adjacent blocks extract it, the TileEntity does not tick at all.
+	PULL("Pull"),
+
+	// Energy received is passed directly to the adjacent receivers without being stored, the TileEntity does not tick at all.
+	PASS_THROUGH("Pass-through");
+
+	private final String display;
+
+	TransferMode(String display) {
+		this.display = display;
+	}
+
+	public String getDisplay() {
+		return display;
+	}
+
+	/**
+	 * Returns the TransferMode with the given name, ignoring case, or PUSH if there is none.
+	 */
+	public static TransferMode getFromName(String name) {
+		for (TransferMode transferMode : values()) {
+			if (transferMode.name().equalsIgnoreCase(name)) {
+				return transferMode;
+			}
+		}
+
+		return PUSH;
+	}
+}
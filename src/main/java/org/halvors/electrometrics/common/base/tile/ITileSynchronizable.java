@@ -0,0 +1,54 @@
+package org.halvors.electrometrics.common.base.tile;
+
+import org.halvors.electrometrics.common.network.PacketReader;
+import org.halvors.electrometrics.common.network.PacketWriter;
+
+/**
+ * Implement this to enable your TileEntity to send and receive only the fields that have changed, using typed readers
+ * and writers. The ITileNetworkable methods are kept as an adapter for code that still works with lists of objects.
+ *
+ * @author halvors
+ */
+public interface ITileSynchronizable extends ITileNetworkable {
+	/**
+	 * Field mask that selects every synchronized field.
+	 */
+	int ALL_FIELDS = ~0;
+
+	/**
+	 * Receive and manage the given fields of a packet's data.
+	 * @param reader the reader to read data from.
+	 * @param fields the mask of fields present in the data.
+	 */
+	void readPacketData(PacketReader reader, int fields) throws Exception;
+
+	/**
+	 * Writes the given fields this tile entity keeps synchronized with the client.
+	 * @param writer the writer to write data to.
+	 * @param fields the mask of fields to write.
+	 */
+	void writePacketData(PacketWriter writer, int fields);
+
+	/**
+	 * Gets the mask of fields clients are allowed to change, only these fields are sent to and accepted by the server.
+	 * @return fields
+	 */
+	int getClientFields();
+
+	/**
+	 * Marks the given fields as changed, they will be sent to the clients with the next synchronization.
+	 * @param fields the mask of fields that changed.
+	 */
+	void markForSync(int fields);
+
+	/**
+	 * Gets the mask of fields that have changed since the last synchronization.
+	 * @return fields
+	 */
+	int getDirtyFields();
+
+	/**
+	 * Marks all fields as synchronized.
+	 */
+	void clearDirtyFields();
+}
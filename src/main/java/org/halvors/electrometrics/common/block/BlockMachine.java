@@ -14,6 +14,7 @@ import net.minecraft.item.ItemStack;
 import net.minecraft.util.ChatComponentText;
 import net.minecraft.util.IIcon;
 import net.minecraft.util.MovingObjectPosition;
+import net.minecraft.world.IBlockAccess;
 import net.minecraft.world.World;
 import org.halvors.electrometrics.Electrometrics;
 import org.halvors.electrometrics.client.render.BlockRenderer;
@@ -25,10 +26,12 @@ import org.halvors.electrometrics.common.base.MachineType;
 import org.halvors.electrometrics.common.base.Tier;
 import org.halvors.electrometrics.common.base.tile.ITileOwnable;
 import org.halvors.electrometrics.common.base.tile.ITileRedstoneControl;
+import org.halvors.electrometrics.common.base.tile.ITileSynchronizable;
 import org.halvors.electrometrics.common.item.ItemBlockMachine;
 import org.halvors.electrometrics.common.tile.TileEntity;
 import org.halvors.electrometrics.common.tile.machine.TileEntityElectricMachine;
 import org.halvors.electrometrics.common.tile.machine.TileEntityElectricityMeter;
+import org.halvors.electrometrics.common.tile.machine.TileEntityElectricityProvider;
 import org.halvors.electrometrics.common.tile.machine.TileEntityElectricityStorage;
 import org.halvors.electrometrics.common.util.LanguageUtils;
 import org.halvors.electrometrics.common.util.MachineUtils;
@@ -183,6 +186,12 @@ public class BlockMachine extends BlockRotatable {
 		}
 
 		super.onBlockPlacedBy(world, x, y, z, entity, itemStack);
+
+		// Send the complete state of the new TileEntity to the clients, as they don't request it themselves.
+		if (tileEntity instanceof ITileSynchronizable) {
+			ITileSynchronizable tileSynchronizable = (ITileSynchronizable) tileEntity;
+			tileSynchronizable.markForSync(ITileSynchronizable.ALL_FIELDS);
+		}
 	}
 
 	@Override
@@ -194,6 +203,21 @@ public class BlockMachine extends BlockRotatable {
 				TileEntityElectricMachine tileEntityElectricMachine = (TileEntityElectricMachine) tileEntity;
 				tileEntityElectricMachine.onNeighborChange();
 			}
+
+			if (tileEntity instanceof TileEntityElectricityProvider) {
+				TileEntityElectricityProvider tileEntityElectricityProvider = (TileEntityElectricityProvider) tileEntity;
+				tileEntityElectricityProvider.invalidateAdjacentReceivers();
+			}
+		}
+	}
+
+	@Override
+	public void onNeighborChange(IBlockAccess world, int x, int y, int z, int tileX, int tileY, int tileZ) {
+		TileEntity tileEntity = TileEntity.getTileEntity(world, x, y, z);
+
+		if (tileEntity instanceof TileEntityElectricityProvider) {
+			TileEntityElectricityProvider tileEntityElectricityProvider = (TileEntityElectricityProvider) tileEntity;
+			tileEntityElectricityProvider.invalidateAdjacentReceivers();
 		}
 	}
 
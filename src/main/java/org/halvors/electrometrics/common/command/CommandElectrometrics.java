@@ -0,0 +1,215 @@
+package org.halvors.electrometrics.common.command;
+
+import net.minecraft.command.CommandBase;
+import net.minecraft.command.ICommandSender;
+import net.minecraft.command.WrongUsageException;
+import net.minecraft.util.ChatComponentText;
+import net.minecraftforge.common.DimensionManager;
+import org.halvors.electrometrics.common.Reference;
+import org.halvors.electrometrics.common.history.MeterExport;
+import org.halvors.electrometrics.common.network.PacketBufferTracker;
+import org.halvors.electrometrics.common.network.TrafficMonitor;
+import org.halvors.electrometrics.common.profiler.EnergyAuditor;
+import org.halvors.electrometrics.common.profiler.TileProfiler;
+
+import java.io.File;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * This is the administration command of this mod.
+ *
+ * @author halvors
+ */
+public class CommandElectrometrics extends CommandBase {
+	@Override
+	public String getCommandName() {
+		return Reference.ID;
+	}
+
+	@Override
+	public String getCommandUsage(ICommandSender sender) {
+		return "/" + getCommandName() + " <audit [start|stop|reset]|buffers|export [csv|json]|profiler [start|stop|reset]|traffic [reset|dump]>";
+	}
+
+	@Override
+	public int getRequiredPermissionLevel() {
+		return 2;
+	}
+
+	@Override
+	public void processCommand(ICommandSender sender, String[] args) {
+		if (args.length < 1) {
+			throw new WrongUsageException(getCommandUsage(sender));
+		}
+
+		switch (args[0]) {
+			case "audit":
+				processAuditCommand(sender, args.length > 1 ? args[1] : "report");
+				break;
+
+			case "buffers":
+				sendMessage(sender, "Server inbound packet buffers retained: " + PacketBufferTracker.getRetained() + ", released: " + PacketBufferTracker.getReleased() + ", outstanding: " + PacketBufferTracker.getOutstanding() + ".");
+				sendMessage(sender, "Client-side counters are shown on each client's debug screen (F3).");
+				break;
+
+			case "export":
+				MeterExport.Format format = MeterExport.Format.CSV;
+
+				if (args.length > 1) {
+					try {
+						format = MeterExport.Format.valueOf(args[1].toUpperCase());
+					} catch (IllegalArgumentException e) {
+						throw new WrongUsageException(getCommandUsage(sender));
+					}
+				}
+
+				int count = MeterExport.export(sender, format);
+
+				sendMessage(sender, count >= 0 ? "Exporting " + count + " loaded meters as " + format.name() + "..." : "There is no world folder to export to.");
+				break;
+
+			case "profiler":
+				processProfilerCommand(sender, args.length > 1 ? args[1] : "report");
+				break;
+
+			case "traffic":
+				processTrafficCommand(sender, args.length > 1 ? args[1] : "report");
+				break;
+
+			default:
+				throw new WrongUsageException(getCommandUsage(sender));
+		}
+	}
+
+	private void processAuditCommand(ICommandSender sender, String action) {
+		switch (action) {
+			case "start":
+				EnergyAuditor.setEnabled(true);
+				sendMessage(sender, "Energy audit started, violations are logged.");
+				break;
+
+			case "stop":
+				EnergyAuditor.setEnabled(false);
+				sendMessage(sender, "Energy audit stopped.");
+				break;
+
+			case "reset":
+				EnergyAuditor.reset();
+				sendMessage(sender, "Energy audit reset.");
+				break;
+
+			case "report":
+				sendMessage(sender, "Energy audit is " + (EnergyAuditor.isEnabled() ? "running" : "stopped") + ", " + EnergyAuditor.getViolations() + " violations found.");
+				break;
+
+			default:
+				throw new WrongUsageException(getCommandUsage(sender));
+		}
+	}
+
+	private void processProfilerCommand(ICommandSender sender, String action) {
+		switch (action) {
+			case "start":
+				TileProfiler.setEnabled(true);
+				sendMessage(sender, "Profiler started.");
+				break;
+
+			case "stop":
+				TileProfiler.setEnabled(false);
+				sendMessage(sender, "Profiler stopped.");
+				break;
+
+			case "reset":
+				TileProfiler.reset();
+				sendMessage(sender, "Profiler reset.");
+				break;
+
+			case "report":
+				List<String> lines = TileProfiler.getReport();
+
+				sendMessage(sender, "Profiler is " + (TileProfiler.isEnabled() ? "running" : "stopped") + (lines.isEmpty() ? ", nothing measured yet." : ":"));
+
+				for (String line : lines) {
+					sendMessage(sender, line);
+				}
+				break;
+
+			default:
+				throw new WrongUsageException(getCommandUsage(sender));
+		}
+	}
+
+	@SuppressWarnings("rawtypes")
+	@Override
+	public List addTabCompletionOptions(ICommandSender sender, String[] args) {
+		if (args.length == 1) {
+			return getListOfStringsMatchingLastWord(args, "audit", "buffers", "export", "profiler", "traffic");
+		} else if (args.length == 2 && args[0].equals("audit")) {
+			return getListOfStringsMatchingLastWord(args, "start", "stop", "reset", "report");
+		} else if (args.length == 2 && args[0].equals("export")) {
+			return getListOfStringsMatchingLastWord(args, "csv", "json");
+		} else if (args.length == 2 && args[0].equals("profiler")) {
+			return getListOfStringsMatchingLastWord(args, "start", "stop", "reset", "report");
+		} else if (args.length == 2 && args[0].equals("traffic")) {
+			return getListOfStringsMatchingLastWord(args, "reset", "dump", "report");
+		}
+
+		return null;
+	}
+
+	private void processTrafficCommand(ICommandSender sender, String action) {
+		switch (action) {
+			case "reset":
+				TrafficMonitor.reset();
+				sendMessage(sender, "Traffic counters reset.");
+				break;
+
+			case "dump":
+				File saveDirectory = DimensionManager.getCurrentSaveRootDirectory();
+
+				if (saveDirectory == null) {
+					sendMessage(sender, "There is no world folder to dump to.");
+					break;
+				}
+
+				List<String> lines = new ArrayList<>();
+
+				for (TrafficMonitor.Direction direction : TrafficMonitor.Direction.values()) {
+					for (TrafficMonitor.Category category : TrafficMonitor.Category.values()) {
+						lines.addAll(TrafficMonitor.getReport(direction, category));
+					}
+				}
+
+				File file = new File(saveDirectory, "electrometrics" + File.separator + "traffic-" + new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date()) + ".txt");
+
+				// The counters are copied here, and written in the background like the exports.
+				MeterExport.write(sender, file, lines, "Dumped " + lines.size() + " traffic counters to " + file.getPath() + ".", "Failed to dump traffic counters");
+				break;
+
+			case "report":
+				List<String> sentLines = TrafficMonitor.getReport(TrafficMonitor.Direction.SENT, TrafficMonitor.Category.TYPE);
+				List<String> receivedLines = TrafficMonitor.getReport(TrafficMonitor.Direction.RECEIVED, TrafficMonitor.Category.TYPE);
+
+				sendMessage(sender, sentLines.isEmpty() && receivedLines.isEmpty() ? "No traffic counted yet." : "Traffic by packet type:");
+
+				for (String line : sentLines) {
+					sendMessage(sender, line);
+				}
+
+				for (String line : receivedLines) {
+					sendMessage(sender, line);
+				}
+				break;
+
+			default:
+				throw new WrongUsageException(getCommandUsage(sender));
+		}
+	}
+
+	private void sendMessage(ICommandSender sender, String message) {
+		sender.addChatMessage(new ChatComponentText(message));
+	}
+}
@@ -0,0 +1,91 @@
+package org.halvors.electrometrics.common.event;
+
+import cpw.mods.fml.common.eventhandler.SubscribeEvent;
+import net.minecraft.entity.player.EntityPlayerMP;
+import net.minecraft.world.ChunkCoordIntPair;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraftforge.common.util.ForgeDirection;
+import net.minecraftforge.event.world.ChunkEvent;
+import net.minecraftforge.event.world.ChunkWatchEvent;
+import org.halvors.electrometrics.common.base.tile.ITileNetworkable;
+import org.halvors.electrometrics.common.base.tile.ITileSynchronizable;
+import org.halvors.electrometrics.common.network.NetworkHandler;
+import org.halvors.electrometrics.common.network.packet.PacketMultipleTileEntity;
+import org.halvors.electrometrics.common.tile.TileEntity;
+import org.halvors.electrometrics.common.tile.machine.TileEntityElectricityProvider;
+
+/**
+ * This is the event handler that handles chunk events.
+ *
+ * @author halvors
+ */
+public class ChunkEventHandler {
+	private static final ForgeDirection[] HORIZONTAL_DIRECTIONS = { ForgeDirection.NORTH, ForgeDirection.SOUTH, ForgeDirection.WEST, ForgeDirection.EAST };
+
+	@SubscribeEvent
+	public void onChunkLoadEvent(ChunkEvent.Load event) {
+		invalidateAdjacentChunks(event.world, event.getChunk());
+	}
+
+	@SubscribeEvent
+	public void onChunkUnloadEvent(ChunkEvent.Unload event) {
+		invalidateAdjacentChunks(event.world, event.getChunk());
+	}
+
+	@SubscribeEvent
+	public void onChunkWatchEvent(ChunkWatchEvent.Watch event) {
+		sendChunkSnapshot(event.player, event.chunk);
+	}
+
+	/**
+	 * Sends the complete state of all our TileEntities in a chunk, right after the chunk itself has been sent to the player.
+	 * @param player the player the chunk was sent to.
+	 * @param chunk the chunk that was sent.
+	 */
+	@SuppressWarnings("unchecked")
+	private <T extends TileEntity & ITileNetworkable> void sendChunkSnapshot(EntityPlayerMP player, ChunkCoordIntPair chunk) {
+		World world = player.worldObj;
+
+		if (world.getChunkProvider().chunkExists(chunk.chunkXPos, chunk.chunkZPos)) {
+			PacketMultipleTileEntity snapshot = new PacketMultipleTileEntity(true);
+
+			for (Object object : world.getChunkFromChunkCoords(chunk.chunkXPos, chunk.chunkZPos).chunkTileEntityMap.values()) {
+				if (object instanceof TileEntity && object instanceof ITileNetworkable) {
+					T tile = (T) object;
+
+					if (!tile.isInvalid()) {
+						snapshot.add(tile, ITileSynchronizable.ALL_FIELDS);
+					}
+				}
+			}
+
+			if (!snapshot.isEmpty()) {
+				NetworkHandler.sendTo(snapshot, player);
+			}
+		}
+	}
+
+	/**
+	 * Makes the providers in the chunks next to a loaded or unloaded chunk look up their adjacent receivers again, as
+	 * those along the border may have neighbours in it.
+	 * @param world the world of the chunk.
+	 * @param chunk the chunk that was loaded or unloaded.
+	 */
+	private void invalidateAdjacentChunks(World world, Chunk chunk) {
+		if (!world.isRemote) {
+			for (ForgeDirection direction : HORIZONTAL_DIRECTIONS) {
+				int chunkX = chunk.xPosition + direction.offsetX;
+				int chunkZ = chunk.zPosition + direction.offsetZ;
+
+				if (world.getChunkProvider().chunkExists(chunkX, chunkZ)) {
+					for (Object object : world.getChunkFromChunkCoords(chunkX, chunkZ).chunkTileEntityMap.values()) {
+						if (object instanceof TileEntityElectricityProvider) {
+							((TileEntityElectricityProvider) object).invalidateAdjacentReceivers();
+						}
+					}
+				}
+			}
+		}
+	}
+}
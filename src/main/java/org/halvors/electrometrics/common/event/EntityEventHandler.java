@@ -0,0 +1,20 @@
+package org.halvors.electrometrics.common.event;
+
+import cpw.mods.fml.common.eventhandler.SubscribeEvent;
+import net.minecraft.entity.player.EntityPlayerMP;
+import net.minecraftforge.event.entity.EntityEvent.EnteringChunk;
+import org.halvors.electrometrics.common.network.ChunkWatcherIndex;
+
+/**
+ * This is the event handler that handles entity events.
+ *
+ * @author halvors
+ */
+public class EntityEventHandler {
+	@SubscribeEvent
+	public void onEnteringChunkEvent(EnteringChunk event) {
+		if (event.entity instanceof EntityPlayerMP) {
+			ChunkWatcherIndex.update((EntityPlayerMP) event.entity, event.newChunkX, event.newChunkZ);
+		}
+	}
+}
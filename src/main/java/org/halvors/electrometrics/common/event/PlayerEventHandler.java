@@ -1,12 +1,18 @@
 package org.halvors.electrometrics.common.event;
 
 import cpw.mods.fml.common.eventhandler.SubscribeEvent;
+import cpw.mods.fml.common.gameevent.PlayerEvent.PlayerChangedDimensionEvent;
 import cpw.mods.fml.common.gameevent.PlayerEvent.PlayerLoggedInEvent;
+import cpw.mods.fml.common.gameevent.PlayerEvent.PlayerLoggedOutEvent;
+import cpw.mods.fml.common.gameevent.PlayerEvent.PlayerRespawnEvent;
 import net.minecraft.entity.player.EntityPlayer;
 import net.minecraft.entity.player.EntityPlayerMP;
 import net.minecraft.world.World;
 import org.halvors.electrometrics.Electrometrics;
+import org.halvors.electrometrics.common.network.ChunkWatcherIndex;
 import org.halvors.electrometrics.common.network.NetworkHandler;
+import org.halvors.electrometrics.common.network.TileSubscriptionManager;
+import org.halvors.electrometrics.common.network.TrafficMonitor;
 import org.halvors.electrometrics.common.network.packet.PacketConfiguration;
 
 /**
@@ -24,6 +30,37 @@ public class PlayerEventHandler {
 			NetworkHandler.sendTo(new PacketConfiguration(), (EntityPlayerMP) player);
 
 			Electrometrics.getInstance().getLogger().info("Sent configuration to '" + player.getDisplayName() + "'.");
+
+			ChunkWatcherIndex.update((EntityPlayerMP) player);
+		}
+	}
+
+	@SubscribeEvent
+	public void onPlayerLogoutEvent(PlayerLoggedOutEvent event) {
+		if (event.player instanceof EntityPlayerMP) {
+			ChunkWatcherIndex.remove((EntityPlayerMP) event.player);
+			TileSubscriptionManager.unsubscribe((EntityPlayerMP) event.player);
+			TrafficMonitor.remove((EntityPlayerMP) event.player);
+		}
+	}
+
+	@SubscribeEvent
+	public void onPlayerChangedDimensionEvent(PlayerChangedDimensionEvent event) {
+		if (event.player instanceof EntityPlayerMP) {
+			ChunkWatcherIndex.update((EntityPlayerMP) event.player);
+			TileSubscriptionManager.unsubscribe((EntityPlayerMP) event.player);
+		}
+	}
+
+	@SubscribeEvent
+	public void onPlayerRespawnEvent(PlayerRespawnEvent event) {
+		if (event.player instanceof EntityPlayerMP) {
+			EntityPlayerMP player = (EntityPlayerMP) event.player;
+
+			// The player is a new entity after respawning, so replace the old one.
+			ChunkWatcherIndex.remove(player);
+			ChunkWatcherIndex.update(player);
+			TileSubscriptionManager.unsubscribe(player);
 		}
 	}
 }
@@ -0,0 +1,46 @@
+package org.halvors.electrometrics.common.event;
+
+import cpw.mods.fml.common.eventhandler.SubscribeEvent;
+import cpw.mods.fml.common.gameevent.TickEvent.Phase;
+import cpw.mods.fml.common.gameevent.TickEvent.ServerTickEvent;
+import net.minecraft.world.World;
+import net.minecraftforge.common.DimensionManager;
+import org.halvors.electrometrics.common.MeterRegistry;
+import org.halvors.electrometrics.common.history.MeterExport;
+import org.halvors.electrometrics.common.history.OwnerUsage;
+import org.halvors.electrometrics.common.history.WorldClock;
+import org.halvors.electrometrics.common.network.TileSubscriptionManager;
+import org.halvors.electrometrics.common.network.TileSyncManager;
+import org.halvors.electrometrics.common.network.TileUpdateBatcher;
+import org.halvors.electrometrics.common.network.TrafficMonitor;
+import org.halvors.electrometrics.common.profiler.EnergyAuditor;
+import org.halvors.electrometrics.common.profiler.TileProfiler;
+
+/**
+ * This is the event handler that handles tick events.
+ *
+ * @author halvors
+ */
+public class TickEventHandler {
+	@SubscribeEvent
+	public void onServerTickEvent(ServerTickEvent event) {
+		if (event.phase == Phase.END) {
+			// All dimensions share the total world time of the overworld.
+			World world = DimensionManager.getWorld(0);
+
+			if (world != null) {
+				WorldClock.onServerTick(world.getTotalWorldTime());
+			}
+
+			MeterRegistry.onServerTick();
+			TileSyncManager.onServerTick();
+			TileSubscriptionManager.onServerTick();
+			OwnerUsage.onServerTick();
+			MeterExport.onServerTick();
+			TileProfiler.onServerTick();
+			EnergyAuditor.onServerTick();
+			TrafficMonitor.onServerTick();
+			TileUpdateBatcher.flush();
+		}
+	}
+}
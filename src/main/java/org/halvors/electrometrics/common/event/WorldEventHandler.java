@@ -0,0 +1,22 @@
+package org.halvors.electrometrics.common.event;
+
+import cpw.mods.fml.common.eventhandler.SubscribeEvent;
+import net.minecraftforge.event.world.WorldEvent;
+import org.halvors.electrometrics.common.history.MeterHistory;
+import org.halvors.electrometrics.common.history.OwnerUsage;
+
+/**
+ * This is the event handler that handles world events.
+ *
+ * @author halvors
+ */
+public class WorldEventHandler {
+	@SubscribeEvent
+	public void onWorldSaveEvent(WorldEvent.Save event) {
+		// The history and usage are shared by all dimensions, so only write them along with the overworld.
+		if (!event.world.isRemote && event.world.provider.dimensionId == 0) {
+			MeterHistory.flush();
+			OwnerUsage.flush();
+		}
+	}
+}
@@ -0,0 +1,35 @@
+package org.halvors.electrometrics.common.history;
+
+/**
+ * This is a single minute of metering history.
+ *
+ * @author halvors
+ */
+public class HistoryRecord {
+	// The time this minute ended, in milliseconds since the epoch.
+	private final long time;
+
+	// The energy that passed thru during this minute.
+	private final long energy;
+
+	// The most energy that passed thru in a single tick during this minute.
+	private final long peak;
+
+	public HistoryRecord(long time, long energy, long peak) {
+		this.time = time;
+		this.energy = energy;
+		this.peak = peak;
+	}
+
+	public long getTime() {
+		return time;
+	}
+
+	public long getEnergy() {
+		return energy;
+	}
+
+	public long getPeak() {
+		return peak;
+	}
+}
@@ -0,0 +1,140 @@
+package org.halvors.electrometrics.common.history;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.List;
+
+/**
+ * This is one day of metering history, a memory-mapped file of fixed-size records that is only ever appended to.
+ *
+ * @author halvors
+ */
+class HistorySegment {
+	// The header holds a magic number followed by the number of records.
+	private static final int MAGIC = 0x454D4831;
+	private static final int HEADER_SIZE = 8;
+
+	// Every record holds the time, the handle, the energy and the peak.
+	private static final int RECORD_SIZE = 8 + 4 + 8 + 8;
+
+	// The number of bytes the file grows by when it's full.
+	private static final int GROWTH = 1 << 20;
+
+	private final long day;
+	private final RandomAccessFile file;
+	private final FileChannel channel;
+	private final boolean isWritable;
+	private MappedByteBuffer buffer;
+	private int count;
+
+	private HistorySegment(long day, RandomAccessFile file, boolean isWritable) throws IOException {
+		this.day = day;
+		this.file = file;
+		this.channel = file.getChannel();
+		this.isWritable = isWritable;
+
+		long size = channel.size();
+
+		if (size < HEADER_SIZE) {
+			if (!isWritable) {
+				throw new IOException("History segment of day " + day + " is truncated");
+			}
+
+			map(GROWTH);
+			buffer.putInt(0, MAGIC);
+			buffer.putInt(4, 0);
+		} else {
+			map(size);
+
+			if (buffer.getInt(0) != MAGIC) {
+				throw new IOException("History segment of day " + day + " is not a history segment");
+			}
+
+			// Never trust the count beyond what the file can actually hold.
+			count = (int) Math.min(buffer.getInt(4), (size - HEADER_SIZE) / RECORD_SIZE);
+		}
+	}
+
+	/**
+	 * Opens the segment of a day, creating it if it's writable and doesn't exist yet.
+	 * @param directory the directory of the history.
+	 * @param day the day, counted in days since the epoch.
+	 * @param isWritable whether or not the segment will be appended to.
+	 * @return the segment, or null if it's read-only and doesn't exist.
+	 */
+	static HistorySegment open(File directory, long day, boolean isWritable) throws IOException {
+		File segmentFile = getFile(directory, day);
+
+		if (!isWritable && !segmentFile.isFile()) {
+			return null;
+		}
+
+		RandomAccessFile file = new RandomAccessFile(segmentFile, isWritable ? "rw" : "r");
+
+		try {
+			return new HistorySegment(day, file, isWritable);
+		} catch (IOException e) {
+			file.close();
+
+			throw e;
+		}
+	}
+
+	static File getFile(File directory, long day) {
+		return new File(directory, "day-" + day + ".bin");
+	}
+
+	void append(long time, int handle, long energy, long peak) throws IOException {
+		int position = HEADER_SIZE + count * RECORD_SIZE;
+
+		if (position + RECORD_SIZE > buffer.capacity()) {
+			map(buffer.capacity() + GROWTH);
+		}
+
+		buffer.putLong(position, time);
+		buffer.putInt(position + 8, handle);
+		buffer.putLong(position + 12, energy);
+		buffer.putLong(position + 20, peak);
+
+		// Only count the record once it's completely written.
+		buffer.putInt(4, ++count);
+	}
+
+	/**
+	 * Adds all records of a handle within a time range to a list, in the order they were appended.
+	 */
+	void read(int handle, long fromTime, long toTime, List<HistoryRecord> records) {
+		for (int i = 0, position = HEADER_SIZE; i < count; i++, position += RECORD_SIZE) {
+			if (buffer.getInt(position + 8) == handle) {
+				long time = buffer.getLong(position);
+
+				if (time >= fromTime && time <= toTime) {
+					records.add(new HistoryRecord(time, buffer.getLong(position + 12), buffer.getLong(position + 20)));
+				}
+			}
+		}
+	}
+
+	void force() {
+		if (isWritable) {
+			buffer.force();
+		}
+	}
+
+	void close() throws IOException {
+		force();
+		channel.close();
+		file.close();
+	}
+
+	long getDay() {
+		return day;
+	}
+
+	private void map(long size) throws IOException {
+		buffer = channel.map(isWritable ? FileChannel.MapMode.READ_WRITE : FileChannel.MapMode.READ_ONLY, 0, size);
+	}
+}
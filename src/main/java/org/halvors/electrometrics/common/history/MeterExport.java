@@ -0,0 +1,237 @@
+package org.halvors.electrometrics.common.history;
+
+import net.minecraft.command.ICommandSender;
+import net.minecraft.util.ChatComponentText;
+import net.minecraftforge.common.DimensionManager;
+import org.halvors.electrometrics.Electrometrics;
+import org.halvors.electrometrics.common.MeterRegistry;
+import org.halvors.electrometrics.common.tile.machine.TileEntityElectricityMeter;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * This is the MeterExport which writes the state of all loaded meters to a CSV or JSON file in the world folder. The meters
+ * are copied on the server thread in a single pass, and the file is written on a background thread.
+ *
+ * @author halvors
+ */
+public class MeterExport {
+	private static final String DIRECTORY_NAME = "electrometrics" + File.separator + "exports";
+
+	/**
+	 * The formats meters can be exported as.
+	 */
+	public enum Format {
+		CSV,
+		JSON
+	}
+
+	private static final ExecutorService executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+		@Override
+		public Thread newThread(Runnable runnable) {
+			Thread thread = new Thread(runnable, "Electrometrics Export");
+			thread.setDaemon(true);
+
+			return thread;
+		}
+	});
+
+	// Messages from finished exports, sent to their senders on the server thread.
+	private static final Queue<Result> results = new ConcurrentLinkedQueue<>();
+
+	/**
+	 * Copies all loaded meters and writes them to a file in the background, must be called on the server thread.
+	 * @param sender the sender to tell when the export has finished.
+	 * @param format the format to write.
+	 * @return the number of meters being exported, or -1 if there is no world folder to export to.
+	 */
+	public static int export(final ICommandSender sender, final Format format) {
+		File saveDirectory = DimensionManager.getCurrentSaveRootDirectory();
+
+		if (saveDirectory == null) {
+			return -1;
+		}
+
+		final List<Snapshot> snapshots = new ArrayList<>(MeterRegistry.getMeters().size());
+
+		for (TileEntityElectricityMeter meter : MeterRegistry.getMeters()) {
+			snapshots.add(new Snapshot(meter));
+		}
+
+		final File file = new File(new File(saveDirectory, DIRECTORY_NAME), "meters-" + new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date()) + "." + format.name().toLowerCase());
+
+		executor.execute(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					write(file.toPath(), format, snapshots);
+					results.add(new Result(sender, "Exported " + snapshots.size() + " meters to " + file.getPath() + "."));
+				} catch (IOException e) {
+					Electrometrics.getInstance().getLogger().warn("Failed to export meters to " + file, e);
+					results.add(new Result(sender, "Failed to export meters: " + e.getMessage()));
+				}
+			}
+		});
+
+		return snapshots.size();
+	}
+
+	/**
+	 * Writes lines of text to a file in the background, on the same thread as the exports.
+	 * @param sender the sender to tell when the file has been written.
+	 * @param file the file to write.
+	 * @param lines the lines to write, they must not be modified afterwards.
+	 * @param message the message telling the sender the file has been written.
+	 * @param failureMessage the message telling the sender the file could not be written, the error is appended to it.
+	 */
+	public static void write(final ICommandSender sender, final File file, final List<String> lines, final String message, final String failureMessage) {
+		executor.execute(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					Files.createDirectories(file.getParentFile().toPath());
+					Files.write(file.toPath(), lines, StandardCharsets.UTF_8);
+					results.add(new Result(sender, message));
+				} catch (IOException e) {
+					Electrometrics.getInstance().getLogger().warn("Failed to write " + file, e);
+					results.add(new Result(sender, failureMessage + ": " + e.getMessage()));
+				}
+			}
+		});
+	}
+
+	/**
+	 * Called at the end of every server tick, tells senders about their finished exports.
+	 */
+	public static void onServerTick() {
+		Result result;
+
+		while ((result = results.poll()) != null) {
+			result.sender.addChatMessage(new ChatComponentText(result.message));
+		}
+	}
+
+	private static void write(Path path, Format format, List<Snapshot> snapshots) throws IOException {
+		Files.createDirectories(path.getParent());
+
+		try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+			switch (format) {
+				case CSV:
+					writeCsv(writer, snapshots);
+					break;
+
+				case JSON:
+					writeJson(writer, snapshots);
+					break;
+			}
+		}
+	}
+
+	private static void writeCsv(Writer writer, List<Snapshot> snapshots) throws IOException {
+		writer.write("id,ownerUUID,ownerName,dimension,x,y,z,tier,electricityCount,electricityStored\n");
+
+		for (Snapshot snapshot : snapshots) {
+			writer.write(snapshot.meterId + "," + (snapshot.ownerUUID != null ? snapshot.ownerUUID : "") + "," + quoteCsv(snapshot.ownerName) + "," +
+					snapshot.dimensionId + "," + snapshot.x + "," + snapshot.y + "," + snapshot.z + "," +
+					snapshot.tier + "," + snapshot.electricityCount + "," + snapshot.electricityStored + "\n");
+		}
+	}
+
+	private static void writeJson(Writer writer, List<Snapshot> snapshots) throws IOException {
+		writer.write("[\n");
+
+		for (int i = 0; i < snapshots.size(); i++) {
+			Snapshot snapshot = snapshots.get(i);
+
+			writer.write("  {\"id\": " + snapshot.meterId +
+					", \"ownerUUID\": " + quoteJson(snapshot.ownerUUID != null ? snapshot.ownerUUID.toString() : null) +
+					", \"ownerName\": " + quoteJson(snapshot.ownerName) +
+					", \"dimension\": " + snapshot.dimensionId + ", \"x\": " + snapshot.x + ", \"y\": " + snapshot.y + ", \"z\": " + snapshot.z +
+					", \"tier\": " + quoteJson(snapshot.tier) +
+					", \"electricityCount\": " + snapshot.electricityCount +
+					", \"electricityStored\": " + snapshot.electricityStored + "}" +
+					(i < snapshots.size() - 1 ? ",\n" : "\n"));
+		}
+
+		writer.write("]\n");
+	}
+
+	private static String quoteCsv(String value) {
+		return value != null ? "\"" + value.replace("\"", "\"\"") + "\"" : "";
+	}
+
+	private static String quoteJson(String value) {
+		if (value == null) {
+			return "null";
+		}
+
+		StringBuilder builder = new StringBuilder(value.length() + 2).append('"');
+
+		for (char character : value.toCharArray()) {
+			if (character == '"' || character == '\\') {
+				builder.append('\\').append(character);
+			} else if (character < 0x20) {
+				builder.append(String.format("\\u%04x", (int) character));
+			} else {
+				builder.append(character);
+			}
+		}
+
+		return builder.append('"').toString();
+	}
+
+	/**
+	 * An immutable copy of the state of a meter.
+	 */
+	private static class Snapshot {
+		private final int meterId;
+		private final UUID ownerUUID;
+		private final String ownerName;
+		private final int dimensionId;
+		private final int x;
+		private final int y;
+		private final int z;
+		private final String tier;
+		private final String electricityCount;
+		private final int electricityStored;
+
+		private Snapshot(TileEntityElectricityMeter meter) {
+			this.meterId = meter.getMeterId();
+			this.ownerUUID = meter.getOwnerUUID();
+			this.ownerName = meter.getOwnerName();
+			this.dimensionId = meter.getWorldObj().provider.dimensionId;
+			this.x = meter.xCoord;
+			this.y = meter.yCoord;
+			this.z = meter.zCoord;
+			this.tier = meter.getElectricTier().name();
+			this.electricityCount = meter.getElectricityCount().toString();
+			this.electricityStored = meter.getStorage().getEnergyStored();
+		}
+	}
+
+	private static class Result {
+		private final ICommandSender sender;
+		private final String message;
+
+		private Result(ICommandSender sender, String message) {
+			this.sender = sender;
+			this.message = message;
+		}
+	}
+}
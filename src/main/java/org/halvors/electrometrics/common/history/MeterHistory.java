@@ -0,0 +1,297 @@
+package org.halvors.electrometrics.common.history;
+
+import net.minecraftforge.common.DimensionManager;
+import org.halvors.electrometrics.Electrometrics;
+import org.halvors.electrometrics.common.tile.TileEntity;
+import org.halvors.electrometrics.common.util.location.Location;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This is the MeterHistory which keeps the metering history of the current world outside of the tile NBT, in day-long
+ * append-only segments in the world folder. Meters only store the handle they were given, and the index maps handles to
+ * their location and the days they have history for.
+ *
+ * @author halvors
+ */
+public class MeterHistory {
+	private static final String DIRECTORY_NAME = "electrometrics" + File.separator + "history";
+	private static final String INDEX_NAME = "index.dat";
+	private static final int INDEX_VERSION = 1;
+	private static final long MILLISECONDS_PER_DAY = 24 * 60 * 60 * 1000;
+
+	// The number of handles reserved at once, the index is written whenever a new block is reserved.
+	private static final int HANDLE_BLOCK_SIZE = 64;
+
+	// The history directory of the current world, null while closed.
+	private static File directory;
+
+	// The index of all handles in the current world.
+	private static final Map<Integer, Entry> entries = new HashMap<>();
+	private static int nextHandle = 1;
+	private static boolean isIndexDirty;
+
+	// The first handle that is not reserved on disk yet, handles below it are never given out again.
+	private static int reservedHandle = 1;
+
+	// The segment of the current day.
+	private static HistorySegment segment;
+
+	/**
+	 * Gives a TileEntity a new handle to record history for.
+	 * @param tileEntity the TileEntity.
+	 * @return the handle, or 0 if the history can't be opened.
+	 */
+	public static int allocate(TileEntity tileEntity) {
+		if (!open()) {
+			return 0;
+		}
+
+		// Reserve handles on disk before giving them out, so that a crash before the next save never gives one out twice.
+		if (nextHandle >= reservedHandle) {
+			reservedHandle = nextHandle + HANDLE_BLOCK_SIZE;
+
+			if (!writeIndex()) {
+				reservedHandle = nextHandle;
+
+				return 0;
+			}
+		}
+
+		int handle = nextHandle++;
+		entries.put(handle, new Entry(new Location(tileEntity)));
+		isIndexDirty = true;
+
+		return handle;
+	}
+
+	/**
+	 * Appends a minute of history to a handle.
+	 * @param handle the handle.
+	 * @param time the time the minute ended, in milliseconds since the epoch.
+	 * @param energy the energy that passed thru during the minute.
+	 * @param peak the most energy that passed thru in a single tick during the minute.
+	 */
+	public static void append(int handle, long time, long energy, long peak) {
+		Entry entry = open() ? entries.get(handle) : null;
+
+		if (entry != null) {
+			long day = time / MILLISECONDS_PER_DAY;
+
+			try {
+				if (segment == null || segment.getDay() != day) {
+					closeSegment();
+					segment = HistorySegment.open(directory, day, true);
+				}
+
+				segment.append(time, handle, energy, peak);
+			} catch (IOException e) {
+				Electrometrics.getInstance().getLogger().warn("Failed to append metering history of " + entry.location, e);
+
+				closeSegment();
+
+				return;
+			}
+
+			// Minutes that were caught up on can belong to an earlier day than the current one.
+			if (entry.firstDay < 0 || entry.firstDay > day) {
+				entry.firstDay = day;
+				isIndexDirty = true;
+			}
+
+			if (entry.lastDay < day) {
+				entry.lastDay = day;
+				isIndexDirty = true;
+			}
+		}
+	}
+
+	/**
+	 * Returns the history of a handle within a time range, only reading the segments of days the handle has history for.
+	 * @param handle the handle.
+	 * @param fromTime the start of the range, in milliseconds since the epoch.
+	 * @param toTime the end of the range, in milliseconds since the epoch.
+	 * @return the records in the range, oldest first.
+	 */
+	public static List<HistoryRecord> query(int handle, long fromTime, long toTime) {
+		List<HistoryRecord> records = new ArrayList<>();
+		Entry entry = open() ? entries.get(handle) : null;
+
+		if (entry != null && entry.firstDay >= 0) {
+			long fromDay = Math.max(fromTime / MILLISECONDS_PER_DAY, entry.firstDay);
+			long toDay = Math.min(toTime / MILLISECONDS_PER_DAY, entry.lastDay);
+
+			for (long day = fromDay; day <= toDay; day++) {
+				if (segment != null && segment.getDay() == day) {
+					segment.read(handle, fromTime, toTime, records);
+				} else {
+					try {
+						HistorySegment daySegment = HistorySegment.open(directory, day, false);
+
+						if (daySegment != null) {
+							daySegment.read(handle, fromTime, toTime, records);
+							daySegment.close();
+						}
+					} catch (IOException e) {
+						Electrometrics.getInstance().getLogger().warn("Failed to read metering history of day " + day, e);
+					}
+				}
+			}
+		}
+
+		return records;
+	}
+
+	/**
+	 * Returns the location a handle was allocated at, or null if it's unknown.
+	 */
+	public static Location getLocation(int handle) {
+		Entry entry = open() ? entries.get(handle) : null;
+
+		return entry != null ? entry.location : null;
+	}
+
+	/**
+	 * Writes everything to disk, called when the world is saved.
+	 */
+	public static void flush() {
+		if (directory != null) {
+			if (segment != null) {
+				segment.force();
+			}
+
+			if (isIndexDirty) {
+				writeIndex();
+			}
+		}
+	}
+
+	/**
+	 * Writes everything to disk and forgets the current world, called when the server stops.
+	 */
+	public static void close() {
+		flush();
+		closeSegment();
+
+		directory = null;
+		entries.clear();
+		nextHandle = 1;
+		reservedHandle = 1;
+		isIndexDirty = false;
+	}
+
+	private static boolean open() {
+		if (directory == null) {
+			File saveDirectory = DimensionManager.getCurrentSaveRootDirectory();
+
+			if (saveDirectory == null) {
+				return false;
+			}
+
+			File historyDirectory = new File(saveDirectory, DIRECTORY_NAME);
+
+			if (!historyDirectory.isDirectory() && !historyDirectory.mkdirs()) {
+				Electrometrics.getInstance().getLogger().warn("Failed to create metering history directory " + historyDirectory);
+
+				return false;
+			}
+
+			directory = historyDirectory;
+			readIndex();
+		}
+
+		return true;
+	}
+
+	private static void closeSegment() {
+		if (segment != null) {
+			try {
+				segment.close();
+			} catch (IOException e) {
+				Electrometrics.getInstance().getLogger().warn("Failed to close metering history segment", e);
+			}
+
+			segment = null;
+		}
+	}
+
+	private static void readIndex() {
+		File indexFile = new File(directory, INDEX_NAME);
+
+		if (indexFile.isFile()) {
+			try (DataInputStream inputStream = new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile)))) {
+				if (inputStream.readInt() != INDEX_VERSION) {
+					throw new IOException("Unknown version");
+				}
+
+				nextHandle = inputStream.readInt();
+				reservedHandle = nextHandle;
+
+				for (int i = inputStream.readInt(); i > 0; i--) {
+					int handle = inputStream.readInt();
+					Entry entry = new Entry(new Location(inputStream.readInt(), inputStream.readInt(), inputStream.readInt(), inputStream.readInt()));
+					entry.firstDay = inputStream.readLong();
+					entry.lastDay = inputStream.readLong();
+
+					entries.put(handle, entry);
+				}
+			} catch (IOException e) {
+				Electrometrics.getInstance().getLogger().warn("Failed to read metering history index " + indexFile, e);
+			}
+		}
+	}
+
+	/**
+	 * Writes the index, with all handles below reservedHandle marked as given out.
+	 * @return true if the index was written.
+	 */
+	private static boolean writeIndex() {
+		File indexFile = new File(directory, INDEX_NAME);
+		File temporaryFile = new File(directory, INDEX_NAME + ".tmp");
+
+		try (DataOutputStream outputStream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporaryFile)))) {
+			outputStream.writeInt(INDEX_VERSION);
+			outputStream.writeInt(Math.max(nextHandle, reservedHandle));
+			outputStream.writeInt(entries.size());
+
+			for (Map.Entry<Integer, Entry> mapEntry : entries.entrySet()) {
+				Entry entry = mapEntry.getValue();
+
+				outputStream.writeInt(mapEntry.getKey());
+				outputStream.writeInt(entry.location.getDimensionId());
+				outputStream.writeInt(entry.location.getX());
+				outputStream.writeInt(entry.location.getY());
+				outputStream.writeInt(entry.location.getZ());
+				outputStream.writeLong(entry.firstDay);
+				outputStream.writeLong(entry.lastDay);
+			}
+		} catch (IOException e) {
+			Electrometrics.getInstance().getLogger().warn("Failed to write metering history index " + indexFile, e);
+
+			return false;
+		}
+
+		// Replace the index in one step, so that a crash never leaves it half-written.
+		if ((!indexFile.exists() || indexFile.delete()) && temporaryFile.renameTo(indexFile)) {
+			isIndexDirty = false;
+
+			return true;
+		}
+
+		return false;
+	}
+
+	private static class Entry {
+		private final Location location;
+		private long firstDay = -1;
+		private long lastDay = -1;
+
+		private Entry(Location location) {
+			this.location = location;
+		}
+	}
+}
@@ -0,0 +1,295 @@
+package org.halvors.electrometrics.common.history;
+
+import net.minecraft.nbt.CompressedStreamTools;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.nbt.NBTTagList;
+import net.minecraftforge.common.DimensionManager;
+import net.minecraftforge.common.util.Constants;
+import org.halvors.electrometrics.Electrometrics;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Calendar;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This is the OwnerUsage which keeps running totals of the energy measured by the meters of every owner, for the current
+ * and previous day, week and month. Meters add to the account of their owner as energy passes thru, so usage can be
+ * queried without visiting any meter. The accounts are written to the world folder whenever the world is saved.
+ *
+ * @author halvors
+ */
+public class OwnerUsage {
+	private static final String FILE_NAME = "electrometrics" + File.separator + "usage.dat";
+	private static final long MILLISECONDS_PER_DAY = 24 * 60 * 60 * 1000;
+
+	/**
+	 * The periods usage is kept for.
+	 */
+	public enum Period {
+		DAY,
+		WEEK,
+		MONTH
+	}
+
+	// The accounts of all owners, they are read from other threads by exports.
+	private static final Map<UUID, Account> accounts = new ConcurrentHashMap<>();
+
+	// The usage file of the current world, null while closed.
+	private static File file;
+
+	// The current period numbers, indexed by Period ordinal.
+	private static final long[] currentPeriods = new long[Period.values().length];
+
+	private static long currentDay = -1;
+
+	/**
+	 * Returns the account of an owner, creating it if it doesn't exist yet. Meters should hold on to the account of their
+	 * owner, rather than looking it up for every transfer.
+	 * @param ownerUUID the UUID of the owner.
+	 * @return the account.
+	 */
+	public static Account getAccount(UUID ownerUUID) {
+		open();
+
+		Account account = accounts.get(ownerUUID);
+
+		if (account == null) {
+			account = new Account();
+			accounts.put(ownerUUID, account);
+		}
+
+		return account;
+	}
+
+	/**
+	 * Returns the total energy measured by the meters of an owner.
+	 */
+	public static long getTotal(UUID ownerUUID) {
+		open();
+
+		Account account = accounts.get(ownerUUID);
+
+		return account != null ? account.total.get() : 0;
+	}
+
+	/**
+	 * Returns the energy measured by the meters of an owner during the current period.
+	 */
+	public static long getUsage(UUID ownerUUID, Period period) {
+		open();
+
+		Account account = accounts.get(ownerUUID);
+
+		return account != null ? account.current[period.ordinal()].get() : 0;
+	}
+
+	/**
+	 * Returns the energy measured by the meters of an owner during the previous period.
+	 */
+	public static long getPreviousUsage(UUID ownerUUID, Period period) {
+		open();
+
+		Account account = accounts.get(ownerUUID);
+
+		return account != null ? account.previous[period.ordinal()] : 0;
+	}
+
+	/**
+	 * Returns the UUIDs of all owners with an account.
+	 */
+	public static Iterable<UUID> getOwners() {
+		open();
+
+		return accounts.keySet();
+	}
+
+	/**
+	 * Called at the end of every server tick, starts new periods once the day changes.
+	 */
+	public static void onServerTick() {
+		long day = System.currentTimeMillis() / MILLISECONDS_PER_DAY;
+
+		if (day != currentDay && file != null) {
+			currentDay = day;
+
+			long[] periods = getPeriods(day);
+
+			for (int i = 0; i < periods.length; i++) {
+				if (periods[i] != currentPeriods[i]) {
+					for (Account account : accounts.values()) {
+						account.roll(i, periods[i] - currentPeriods[i] == 1);
+					}
+
+					currentPeriods[i] = periods[i];
+				}
+			}
+		}
+	}
+
+	/**
+	 * Writes all accounts to disk, called when the world is saved.
+	 */
+	public static void flush() {
+		if (file != null) {
+			NBTTagCompound nbtTagCompound = new NBTTagCompound();
+			NBTTagList accountList = new NBTTagList();
+
+			for (Period period : Period.values()) {
+				nbtTagCompound.setLong(period.name().toLowerCase(), currentPeriods[period.ordinal()]);
+			}
+
+			for (Map.Entry<UUID, Account> entry : accounts.entrySet()) {
+				NBTTagCompound accountTagCompound = new NBTTagCompound();
+				accountTagCompound.setLong("ownerUUIDM", entry.getKey().getMostSignificantBits());
+				accountTagCompound.setLong("ownerUUIDL", entry.getKey().getLeastSignificantBits());
+				entry.getValue().writeToNBT(accountTagCompound);
+				accountList.appendTag(accountTagCompound);
+			}
+
+			nbtTagCompound.setTag("accounts", accountList);
+
+			File temporaryFile = new File(file.getPath() + ".tmp");
+
+			try (FileOutputStream outputStream = new FileOutputStream(temporaryFile)) {
+				CompressedStreamTools.writeCompressed(nbtTagCompound, outputStream);
+			} catch (IOException e) {
+				Electrometrics.getInstance().getLogger().warn("Failed to write owner usage " + file, e);
+
+				return;
+			}
+
+			// Replace the file in one step, so that a crash never leaves it half-written.
+			if (file.exists() && !file.delete() || !temporaryFile.renameTo(file)) {
+				Electrometrics.getInstance().getLogger().warn("Failed to replace owner usage " + file);
+			}
+		}
+	}
+
+	/**
+	 * Writes all accounts to disk and forgets the current world, called when the server stops.
+	 */
+	public static void close() {
+		flush();
+
+		file = null;
+		accounts.clear();
+		currentDay = -1;
+	}
+
+	private static void open() {
+		if (file == null) {
+			File saveDirectory = DimensionManager.getCurrentSaveRootDirectory();
+
+			if (saveDirectory != null) {
+				file = new File(saveDirectory, FILE_NAME);
+
+				if (!file.getParentFile().isDirectory() && !file.getParentFile().mkdirs()) {
+					Electrometrics.getInstance().getLogger().warn("Failed to create directory for owner usage " + file);
+				}
+
+				System.arraycopy(getPeriods(System.currentTimeMillis() / MILLISECONDS_PER_DAY), 0, currentPeriods, 0, currentPeriods.length);
+
+				if (file.isFile()) {
+					read();
+				}
+			}
+		}
+	}
+
+	private static void read() {
+		try (FileInputStream inputStream = new FileInputStream(file)) {
+			NBTTagCompound nbtTagCompound = CompressedStreamTools.readCompressed(inputStream);
+			NBTTagList accountList = nbtTagCompound.getTagList("accounts", Constants.NBT.TAG_COMPOUND);
+			long[] savedPeriods = new long[currentPeriods.length];
+
+			for (Period period : Period.values()) {
+				savedPeriods[period.ordinal()] = nbtTagCompound.getLong(period.name().toLowerCase());
+			}
+
+			for (int i = 0; i < accountList.tagCount(); i++) {
+				NBTTagCompound accountTagCompound = accountList.getCompoundTagAt(i);
+				Account account = new Account();
+				account.readFromNBT(accountTagCompound);
+
+				// Start new periods for the time the world wasn't running.
+				for (int j = 0; j < savedPeriods.length; j++) {
+					if (savedPeriods[j] != currentPeriods[j]) {
+						account.roll(j, currentPeriods[j] - savedPeriods[j] == 1);
+					}
+				}
+
+				accounts.put(new UUID(accountTagCompound.getLong("ownerUUIDM"), accountTagCompound.getLong("ownerUUIDL")), account);
+			}
+		} catch (IOException e) {
+			Electrometrics.getInstance().getLogger().warn("Failed to read owner usage " + file, e);
+		}
+	}
+
+	/**
+	 * Returns the numbers of the day, week and month containing a day, weeks start on mondays.
+	 */
+	private static long[] getPeriods(long day) {
+		Calendar calendar = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+		calendar.setTimeInMillis(day * MILLISECONDS_PER_DAY);
+
+		// The epoch was a thursday.
+		return new long[] { day, (day + 3) / 7, calendar.get(Calendar.YEAR) * 12L + calendar.get(Calendar.MONTH) };
+	}
+
+	/**
+	 * The usage of a single owner, added to by the meters without locking.
+	 */
+	public static class Account {
+		private final AtomicLong total = new AtomicLong();
+		private final AtomicLong[] current = new AtomicLong[Period.values().length];
+		private final long[] previous = new long[Period.values().length];
+
+		private Account() {
+			for (int i = 0; i < current.length; i++) {
+				current[i] = new AtomicLong();
+			}
+		}
+
+		/**
+		 * Adds energy measured by a meter of this owner.
+		 * @param energy the amount of energy.
+		 */
+		public void add(long energy) {
+			total.addAndGet(energy);
+
+			for (AtomicLong usage : current) {
+				usage.addAndGet(energy);
+			}
+		}
+
+		private void roll(int period, boolean isConsecutive) {
+			long usage = current[period].getAndSet(0);
+			previous[period] = isConsecutive ? usage : 0;
+		}
+
+		private void readFromNBT(NBTTagCompound nbtTagCompound) {
+			total.set(nbtTagCompound.getLong("total"));
+
+			for (Period period : Period.values()) {
+				current[period.ordinal()].set(nbtTagCompound.getLong(period.name().toLowerCase()));
+				previous[period.ordinal()] = nbtTagCompound.getLong("previous" + period.name().charAt(0) + period.name().substring(1).toLowerCase());
+			}
+		}
+
+		private void writeToNBT(NBTTagCompound nbtTagCompound) {
+			nbtTagCompound.setLong("total", total.get());
+
+			for (Period period : Period.values()) {
+				nbtTagCompound.setLong(period.name().toLowerCase(), current[period.ordinal()].get());
+				nbtTagCompound.setLong("previous" + period.name().charAt(0) + period.name().substring(1).toLowerCase(), previous[period.ordinal()]);
+			}
+		}
+	}
+}
@@ -0,0 +1,62 @@
+package org.halvors.electrometrics.common.history;
+
+/**
+ * This is the WorldClock which remembers the time every recent server tick ended at, so that records of past ticks can
+ * be stamped with the time the world actually was at that tick, even if the server lagged or was paused since.
+ *
+ * @author halvors
+ */
+public class WorldClock {
+	// The number of recent ticks remembered, a minute worth of them.
+	private static final int LENGTH = 60 * 20;
+
+	// The length of a tick, used to estimate the time of ticks older than the remembered ones.
+	private static final long MILLISECONDS_PER_TICK = 50;
+
+	// The time of the remembered ticks, indexed by world time modulo their number.
+	private static final long[] times = new long[LENGTH];
+
+	// The first and last world time remembered, -1 if none is.
+	private static long firstTick = -1;
+	private static long lastTick = -1;
+
+	/**
+	 * Called at the end of every server tick, remembers the time it ended at.
+	 * @param worldTime the total world time of the tick.
+	 */
+	public static void onServerTick(long worldTime) {
+		if (firstTick < 0 || worldTime < lastTick) {
+			firstTick = worldTime;
+		}
+
+		times[(int) (worldTime % LENGTH)] = System.currentTimeMillis();
+		lastTick = worldTime;
+	}
+
+	/**
+	 * Returns the time a tick ended at, in milliseconds since the epoch. Ticks older than the remembered ones are estimated
+	 * from the oldest remembered tick, and the tick in progress is taken as now.
+	 * @param worldTime the total world time of the tick.
+	 */
+	public static long getTime(long worldTime) {
+		if (lastTick < 0 || worldTime > lastTick) {
+			return System.currentTimeMillis();
+		}
+
+		long oldestTick = Math.max(lastTick - LENGTH + 1, firstTick);
+
+		if (worldTime >= oldestTick) {
+			return times[(int) (worldTime % LENGTH)];
+		}
+
+		return times[(int) (oldestTick % LENGTH)] - (oldestTick - worldTime) * MILLISECONDS_PER_TICK;
+	}
+
+	/**
+	 * Forgets all ticks, called when the server stops.
+	 */
+	public static void clear() {
+		firstTick = -1;
+		lastTick = -1;
+	}
+}
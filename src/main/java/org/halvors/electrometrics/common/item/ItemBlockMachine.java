@@ -15,6 +15,7 @@ import org.halvors.electrometrics.common.tile.TileEntity;
 import org.halvors.electrometrics.common.tile.machine.TileEntityElectricityMeter;
 import org.halvors.electrometrics.common.tile.machine.TileEntityElectricityStorage;
 import org.halvors.electrometrics.common.util.LanguageUtils;
+import org.halvors.electrometrics.common.util.energy.EnergyCounter;
 import org.halvors.electrometrics.common.util.energy.EnergyUtils;
 import org.halvors.electrometrics.common.util.render.Color;
 
@@ -53,7 +54,7 @@ public class ItemBlockMachine extends ItemBlockSubtyped {
 				case ADVANCED_ELECTRICITY_METER:
 				case ELITE_ELECTRICITY_METER:
 				case ULTIMATE_ELECTRICITY_METER:
-					list.add(Color.BRIGHT_GREEN + LanguageUtils.localize("tooltip.measuredEnergy") + ": " + Color.GREY + EnergyUtils.getEnergyDisplay(getElectricityCount(itemStack)));
+					list.add(Color.BRIGHT_GREEN + LanguageUtils.localize("tooltip.measuredEnergy") + ": " + Color.GREY + EnergyUtils.getEnergyDisplay(getElectricityCount(itemStack).doubleValue()));
 					list.add(Color.AQUA + LanguageUtils.localize("tooltip.storedEnergy") + ": " + Color.GREY + EnergyUtils.getEnergyDisplay(getElectricityStored(itemStack)));
 					break;
 
@@ -176,7 +177,9 @@ public class ItemBlockMachine extends ItemBlockSubtyped {
 		}
 	}
 
-	private double getElectricityCount(ItemStack itemStack) {
+	private EnergyCounter getElectricityCount(ItemStack itemStack) {
+		EnergyCounter electricityCount = new EnergyCounter();
+
 		MachineType machineType = MachineType.getType(itemStack);
 
 		switch (machineType) {
@@ -185,14 +188,14 @@ public class ItemBlockMachine extends ItemBlockSubtyped {
 			case ELITE_ELECTRICITY_METER:
 			case ULTIMATE_ELECTRICITY_METER:
 				if (itemStack.stackTagCompound != null) {
-					return itemStack.stackTagCompound.getDouble("electricityCount");
+					electricityCount.readFromNBT(itemStack.stackTagCompound, "electricityCount");
 				}
 		}
 
-        return 0;
+		return electricityCount;
 	}
 
-	public void setElectricityCount(ItemStack itemStack, double electricityCount) {
+	public void setElectricityCount(ItemStack itemStack, EnergyCounter electricityCount) {
 		MachineType machineType = MachineType.getType(itemStack);
 
 		switch (machineType) {
@@ -204,7 +207,7 @@ public class ItemBlockMachine extends ItemBlockSubtyped {
 					itemStack.setTagCompound(new NBTTagCompound());
 				}
 
-				itemStack.stackTagCompound.setDouble("electricityCount", electricityCount);
+				electricityCount.writeToNBT(itemStack.stackTagCompound, "electricityCount");
 				break;
 		}
 	}
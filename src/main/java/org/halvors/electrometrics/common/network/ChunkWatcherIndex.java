@@ -0,0 +1,195 @@
+package org.halvors.electrometrics.common.network;
+
+import cpw.mods.fml.common.FMLCommonHandler;
+import net.minecraft.entity.player.EntityPlayerMP;
+import net.minecraft.util.IntHashMap;
+import net.minecraft.util.LongHashMap;
+import net.minecraft.util.MathHelper;
+import net.minecraft.world.ChunkCoordIntPair;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This is the ChunkWatcherIndex which keeps track of which players are watching which chunks, so that the receivers of
+ * an update can be found without scanning all players. It's updated when a player logs in, logs out, changes dimension or
+ * crosses a chunk border.
+ *
+ * @author halvors
+ */
+public class ChunkWatcherIndex {
+	// The watchers of every chunk, by dimension and then by chunk.
+	private static final IntHashMap dimensions = new IntHashMap();
+
+	// The area currently watched by every indexed player.
+	private static final Map<EntityPlayerMP, WatchedArea> watchedAreas = new HashMap<>();
+
+	private static final List<EntityPlayerMP> noWatchers = Collections.emptyList();
+
+	/**
+	 * Updates the watched area of a player from it's current position.
+	 * @param player the player to update.
+	 */
+	public static void update(EntityPlayerMP player) {
+		update(player, MathHelper.floor_double(player.posX) >> 4, MathHelper.floor_double(player.posZ) >> 4);
+	}
+
+	/**
+	 * Updates the watched area of a player that is in the given chunk.
+	 * @param player the player to update.
+	 * @param chunkX the x coordinate of the chunk the player is in.
+	 * @param chunkZ the z coordinate of the chunk the player is in.
+	 */
+	public static void update(EntityPlayerMP player, int chunkX, int chunkZ) {
+		update(player, chunkX, chunkZ, FMLCommonHandler.instance().getMinecraftServerInstance().getConfigurationManager().getViewDistance());
+	}
+
+	/**
+	 * Updates the watched area of a player that is in the given chunk, using the given view distance.
+	 * @param player the player to update.
+	 * @param chunkX the x coordinate of the chunk the player is in.
+	 * @param chunkZ the z coordinate of the chunk the player is in.
+	 * @param radius the view distance of the player, in chunks.
+	 */
+	public static void update(EntityPlayerMP player, int chunkX, int chunkZ, int radius) {
+		WatchedArea area = new WatchedArea(player.dimension, chunkX, chunkZ, radius);
+		WatchedArea previousArea = watchedAreas.get(player);
+
+		if (area.equals(previousArea)) {
+			return;
+		}
+
+		if (previousArea != null) {
+			removeWatcher(player, previousArea);
+		}
+
+		addWatcher(player, area);
+		watchedAreas.put(player, area);
+	}
+
+	/**
+	 * Removes a player from the index.
+	 * @param player the player to remove.
+	 */
+	public static void remove(EntityPlayerMP player) {
+		WatchedArea area = watchedAreas.remove(player);
+
+		if (area != null) {
+			removeWatcher(player, area);
+		}
+	}
+
+	/**
+	 * Gets the players watching a chunk, the returned list must not be modified.
+	 * @param dimensionId the dimension the chunk is in.
+	 * @param chunkX the x coordinate of the chunk.
+	 * @param chunkZ the z coordinate of the chunk.
+	 * @return the players watching the chunk.
+	 */
+	@SuppressWarnings("unchecked")
+	public static List<EntityPlayerMP> getWatchers(int dimensionId, int chunkX, int chunkZ) {
+		LongHashMap chunks = (LongHashMap) dimensions.lookup(dimensionId);
+
+		if (chunks != null) {
+			List<EntityPlayerMP> watchers = (List<EntityPlayerMP>) chunks.getValueByKey(ChunkCoordIntPair.chunkXZ2Int(chunkX, chunkZ));
+
+			if (watchers != null) {
+				return watchers;
+			}
+		}
+
+		return noWatchers;
+	}
+
+	public static void clear() {
+		dimensions.clearMap();
+		watchedAreas.clear();
+	}
+
+	@SuppressWarnings("unchecked")
+	private static void addWatcher(EntityPlayerMP player, WatchedArea area) {
+		LongHashMap chunks = (LongHashMap) dimensions.lookup(area.dimensionId);
+
+		if (chunks == null) {
+			chunks = new LongHashMap();
+			dimensions.addKey(area.dimensionId, chunks);
+		}
+
+		for (int x = area.chunkX - area.radius; x <= area.chunkX + area.radius; x++) {
+			for (int z = area.chunkZ - area.radius; z <= area.chunkZ + area.radius; z++) {
+				long chunkKey = ChunkCoordIntPair.chunkXZ2Int(x, z);
+				List<EntityPlayerMP> watchers = (List<EntityPlayerMP>) chunks.getValueByKey(chunkKey);
+
+				if (watchers == null) {
+					watchers = new ArrayList<>(1);
+					chunks.add(chunkKey, watchers);
+				}
+
+				watchers.add(player);
+			}
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private static void removeWatcher(EntityPlayerMP player, WatchedArea area) {
+		LongHashMap chunks = (LongHashMap) dimensions.lookup(area.dimensionId);
+
+		if (chunks != null) {
+			for (int x = area.chunkX - area.radius; x <= area.chunkX + area.radius; x++) {
+				for (int z = area.chunkZ - area.radius; z <= area.chunkZ + area.radius; z++) {
+					long chunkKey = ChunkCoordIntPair.chunkXZ2Int(x, z);
+					List<EntityPlayerMP> watchers = (List<EntityPlayerMP>) chunks.getValueByKey(chunkKey);
+
+					if (watchers != null) {
+						watchers.remove(player);
+
+						if (watchers.isEmpty()) {
+							chunks.remove(chunkKey);
+						}
+					}
+				}
+			}
+		}
+	}
+
+	private static class WatchedArea {
+		private final int dimensionId;
+		private final int chunkX;
+		private final int chunkZ;
+		private final int radius;
+
+		private WatchedArea(int dimensionId, int chunkX, int chunkZ, int radius) {
+			this.dimensionId = dimensionId;
+			this.chunkX = chunkX;
+			this.chunkZ = chunkZ;
+			this.radius = radius;
+		}
+
+		@Override
+		public boolean equals(Object object) {
+			if (object instanceof WatchedArea) {
+				WatchedArea area = (WatchedArea) object;
+
+				return area.dimensionId == dimensionId &&
+						area.chunkX == chunkX &&
+						area.chunkZ == chunkZ &&
+						area.radius == radius;
+			}
+
+			return false;
+		}
+
+		@Override
+		public int hashCode() {
+			int result = dimensionId;
+			result = 31 * result + chunkX;
+			result = 31 * result + chunkZ;
+			result = 31 * result + radius;
+
+			return result;
+		}
+	}
+}
@@ -0,0 +1,177 @@
+package org.halvors.electrometrics.common.network;
+
+import io.netty.buffer.ByteBuf;
+import net.minecraft.tileentity.TileEntity;
+import net.minecraft.world.World;
+import org.halvors.electrometrics.Electrometrics;
+import org.halvors.electrometrics.common.base.tile.ITileNetworkable;
+import org.halvors.electrometrics.common.base.tile.ITileSynchronizable;
+import org.halvors.electrometrics.common.profiler.TileProfiler;
+import org.halvors.electrometrics.common.profiler.TileProfiler.Section;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * This is the ClientTileUpdateQueue which applies the TileEntity updates received by the client on the client thread.
+ * The chunk data is applied on the client thread some time after our packets for it have arrived, so updates for
+ * TileEntities that don't exist yet are kept and retried every tick until they do, or until they expire.
+ *
+ * @author halvors
+ */
+public class ClientTileUpdateQueue {
+	// The ticks an update is retried for before it's dropped.
+	private static final int MAX_RETRY_TICKS = 100;
+
+	// The updates received on the network thread, waiting for the client thread.
+	private static final Queue<Update> receivedUpdates = new ConcurrentLinkedQueue<>();
+
+	// The updates whose TileEntity didn't exist yet, oldest first, and the positions they are for.
+	private static final List<Update> deferredUpdates = new LinkedList<>();
+	private static final Set<Long> deferredPositions = new HashSet<>();
+
+	private static int ticks;
+
+	/**
+	 * Queues an update to be applied on the client thread, called from the network thread.
+	 * @param dimensionId the dimension of the TileEntity.
+	 * @param x the x coordinate of the TileEntity.
+	 * @param y the y coordinate of the TileEntity.
+	 * @param z the z coordinate of the TileEntity.
+	 * @param fields the mask of fields present in the data.
+	 * @param data the retained packet data, which is released once the update is applied or dropped.
+	 */
+	public static void enqueue(int dimensionId, int x, int y, int z, int fields, ByteBuf data) {
+		receivedUpdates.add(new Update(dimensionId, x, y, z, fields, data));
+	}
+
+	/**
+	 * Called at the end of every client tick, applies the received updates and retries the deferred ones.
+	 * @param world the world of the client, or null if it's not in a world.
+	 */
+	public static void onClientTick(World world) {
+		if (world == null) {
+			clear();
+
+			return;
+		}
+
+		ticks++;
+
+		// Retry the deferred updates first, so that the updates of every TileEntity are applied in order.
+		Iterator<Update> iterator = deferredUpdates.iterator();
+		deferredPositions.clear();
+
+		while (iterator.hasNext()) {
+			Update update = iterator.next();
+
+			if (update.dimensionId != world.provider.dimensionId || apply(world, update)) {
+				iterator.remove();
+				PacketBufferTracker.release(update.data);
+			} else if (ticks - update.deferredTick > MAX_RETRY_TICKS) {
+				iterator.remove();
+				PacketBufferTracker.release(update.data);
+
+				Electrometrics.getInstance().getLogger().debug("Dropped an update for a missing TileEntity at " + update.x + ", " + update.y + ", " + update.z + ".");
+			} else {
+				deferredPositions.add(update.getPositionKey());
+			}
+		}
+
+		Update update;
+
+		while ((update = receivedUpdates.poll()) != null) {
+			if (update.dimensionId != world.provider.dimensionId) {
+				PacketBufferTracker.release(update.data);
+			} else if (!deferredPositions.contains(update.getPositionKey()) && apply(world, update)) {
+				PacketBufferTracker.release(update.data);
+			} else {
+				update.deferredTick = ticks;
+				deferredUpdates.add(update);
+				deferredPositions.add(update.getPositionKey());
+			}
+		}
+	}
+
+	/**
+	 * Drops all updates, called when the client leaves the world.
+	 */
+	public static void clear() {
+		Update update;
+
+		while ((update = receivedUpdates.poll()) != null) {
+			PacketBufferTracker.release(update.data);
+		}
+
+		for (Update deferredUpdate : deferredUpdates) {
+			PacketBufferTracker.release(deferredUpdate.data);
+		}
+
+		deferredUpdates.clear();
+		deferredPositions.clear();
+		ticks = 0;
+	}
+
+	/**
+	 * Applies an update to it's TileEntity.
+	 * @return false if the TileEntity doesn't exist yet.
+	 */
+	private static boolean apply(World world, Update update) {
+		TileEntity tileEntity = world.getTileEntity(update.x, update.y, update.z);
+
+		if (tileEntity == null) {
+			return false;
+		}
+
+		long startTime = TileProfiler.start();
+
+		try {
+			if (tileEntity instanceof ITileSynchronizable) {
+				ITileSynchronizable tileSynchronizable = (ITileSynchronizable) tileEntity;
+				tileSynchronizable.readPacketData(new PacketReader(update.data), update.fields);
+			} else if (tileEntity instanceof ITileNetworkable) {
+				ITileNetworkable tileNetworkable = (ITileNetworkable) tileEntity;
+				tileNetworkable.handlePacketData(update.data);
+			}
+
+			TileProfiler.stop(tileEntity, Section.DECODE, startTime);
+		} catch (Exception e) {
+			e.printStackTrace();
+		}
+
+		return true;
+	}
+
+	private static class Update {
+		private final int dimensionId;
+		private final int x;
+		private final int y;
+		private final int z;
+		private final int fields;
+		private final ByteBuf data;
+
+		// The client tick this was deferred at.
+		private int deferredTick;
+
+		private Update(int dimensionId, int x, int y, int z, int fields, ByteBuf data) {
+			this.dimensionId = dimensionId;
+			this.x = x;
+			this.y = y;
+			this.z = z;
+			this.fields = fields;
+			this.data = data;
+		}
+
+		/**
+		 * Packs the position into a long, 26 bits for x and z and 12 bits for y.
+		 */
+		private long getPositionKey() {
+			return ((long) x & 0x3FFFFFF) << 38 | ((long) z & 0x3FFFFFF) << 12 | (y & 0xFFF);
+		}
+	}
+}
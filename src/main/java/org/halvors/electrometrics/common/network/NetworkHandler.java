@@ -4,6 +4,7 @@ import cpw.mods.fml.common.network.ByteBufUtils;
 import cpw.mods.fml.common.network.NetworkRegistry;
 import cpw.mods.fml.common.network.NetworkRegistry.TargetPoint;
 import cpw.mods.fml.common.network.simpleimpl.IMessage;
+import cpw.mods.fml.common.network.simpleimpl.IMessageHandler;
 import cpw.mods.fml.common.network.simpleimpl.MessageContext;
 import cpw.mods.fml.common.network.simpleimpl.SimpleNetworkWrapper;
 import cpw.mods.fml.relauncher.Side;
@@ -20,12 +21,15 @@ import net.minecraft.world.World;
 import org.halvors.electrometrics.Electrometrics;
 import org.halvors.electrometrics.common.Reference;
 import org.halvors.electrometrics.common.network.packet.PacketConfiguration;
+import org.halvors.electrometrics.common.network.packet.PacketMultipleTileEntity;
 import org.halvors.electrometrics.common.network.packet.PacketRequestData;
+import org.halvors.electrometrics.common.network.packet.PacketSubscription;
 import org.halvors.electrometrics.common.network.packet.PacketTileEntity;
 import org.halvors.electrometrics.common.tile.TileEntity;
 import org.halvors.electrometrics.common.util.PlayerUtils;
 import org.halvors.electrometrics.common.util.location.Range;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -38,10 +42,25 @@ public class NetworkHandler {
 
 	static {
 		// Register packets.
-		networkWrapper.registerMessage(PacketConfiguration.PacketConfigurationMessage.class, PacketConfiguration.class, 0, Side.CLIENT);
-		networkWrapper.registerMessage(PacketRequestData.PacketRequestDataMessage.class, PacketRequestData.class, 1, Side.SERVER);
-		networkWrapper.registerMessage(PacketTileEntity.PacketTileEntityMessage.class, PacketTileEntity.class, 2, Side.SERVER);
-		networkWrapper.registerMessage(PacketTileEntity.PacketTileEntityMessage.class, PacketTileEntity.class, 2, Side.CLIENT);
+		register(PacketConfiguration.PacketConfigurationMessage.class, PacketConfiguration.class, 0, Side.CLIENT);
+		register(PacketRequestData.PacketRequestDataMessage.class, PacketRequestData.class, 1, Side.SERVER);
+		register(PacketTileEntity.PacketTileEntityMessage.class, PacketTileEntity.class, 2, Side.SERVER);
+		register(PacketTileEntity.PacketTileEntityMessage.class, PacketTileEntity.class, 2, Side.CLIENT);
+		register(PacketMultipleTileEntity.PacketMultipleTileEntityMessage.class, PacketMultipleTileEntity.class, 3, Side.CLIENT);
+		register(PacketSubscription.PacketSubscriptionMessage.class, PacketSubscription.class, 4, Side.SERVER);
+
+		// Count the traffic of every packet type, on both sides.
+		for (Side side : Side.values()) {
+			TrafficMonitor.install(NetworkRegistry.INSTANCE.getChannel(Reference.ID, side));
+		}
+	}
+
+	/**
+	 * Registers a packet with the channel, and with the TrafficMonitor under the same discriminator.
+	 */
+	private static <REQ extends IMessage, REPLY extends IMessage> void register(Class<? extends IMessageHandler<REQ, REPLY>> messageHandler, Class<REQ> requestMessageType, int discriminator, Side side) {
+		networkWrapper.registerMessage(messageHandler, requestMessageType, discriminator, side);
+		TrafficMonitor.registerType(discriminator, requestMessageType);
 	}
 
 	public static SimpleNetworkWrapper getNetworkWrapper() {
@@ -96,12 +115,36 @@ public class NetworkHandler {
 		}
 	}
 
-	public static void sendToReceivers(IMessage message, Range range) {
+	/**
+	 * Gets all players that have the given range loaded.
+	 * @param range - the range to find players for
+	 * @return the players receiving updates within the range
+	 */
+	public static List<EntityPlayerMP> getReceivers(Range range) {
+		List<EntityPlayerMP> players = new ArrayList<>();
+
 		for (EntityPlayerMP player : PlayerUtils.getPlayers()) {
 			if (player.dimension == range.getDimensionId() && Range.getChunkRange(player).intersects(range)) {
-				sendTo(message, player);
+				players.add(player);
 			}
 		}
+
+		return players;
+	}
+
+	/**
+	 * Gets all players that have the chunk of the given TileEntity loaded, the returned list must not be modified.
+	 * @param tileEntity - the TileEntity to find players for
+	 * @return the players receiving updates for the TileEntity
+	 */
+	public static List<EntityPlayerMP> getReceivers(TileEntity tileEntity) {
+		return ChunkWatcherIndex.getWatchers(tileEntity.getWorld().provider.dimensionId, tileEntity.xCoord >> 4, tileEntity.zCoord >> 4);
+	}
+
+	public static void sendToReceivers(IMessage message, Range range) {
+		for (EntityPlayerMP player : getReceivers(range)) {
+			sendTo(message, player);
+		}
 	}
 
 	public static void sendToReceivers(IMessage message, Entity entity) {
@@ -109,7 +152,9 @@ public class NetworkHandler {
 	}
 
 	public static void sendToReceivers(IMessage message, TileEntity tileEntity) {
-		sendToReceivers(message, new Range(tileEntity));
+		for (EntityPlayerMP player : getReceivers(tileEntity)) {
+			sendTo(message, player);
+		}
 	}
 
     public static void writeObject(Object object, ByteBuf dataStream) {
@@ -0,0 +1,55 @@
+package org.halvors.electrometrics.common.network;
+
+import io.netty.buffer.ByteBuf;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This keeps count of inbound packet buffers that are retained while waiting to be handled, so that buffers that are
+ * never released can be detected.
+ *
+ * @author halvors
+ */
+public class PacketBufferTracker {
+	private static final AtomicLong retained = new AtomicLong();
+	private static final AtomicLong released = new AtomicLong();
+
+	/**
+	 * Retains a slice of the readable bytes of an inbound buffer, without copying them.
+	 * @param dataStream the inbound buffer.
+	 * @return the retained slice, which must be given to release() when handled.
+	 */
+	public static ByteBuf retain(ByteBuf dataStream) {
+		ByteBuf slice = dataStream.slice().retain();
+		retained.incrementAndGet();
+
+		return slice;
+	}
+
+	/**
+	 * Releases a slice returned by retain(), does nothing if the slice is null.
+	 * @param slice the retained slice.
+	 */
+	public static void release(ByteBuf slice) {
+		if (slice != null) {
+			slice.release();
+			released.incrementAndGet();
+		}
+	}
+
+	public static long getRetained() {
+		return retained.get();
+	}
+
+	public static long getReleased() {
+		return released.get();
+	}
+
+	/**
+	 * Gets the amount of buffers that are retained and not yet released, if this keeps growing buffers are leaking.
+	 * @return outstanding buffers.
+	 */
+	public static long getOutstanding() {
+		return retained.get() - released.get();
+	}
+}
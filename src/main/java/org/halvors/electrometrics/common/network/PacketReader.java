@@ -0,0 +1,146 @@
+package org.halvors.electrometrics.common.network;
+
+import io.netty.buffer.ByteBuf;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * This is a typed reader over a ByteBuf, the counterpart of PacketWriter.
+ *
+ * @author halvors
+ */
+public class PacketReader {
+	// The maximum length in bytes of a String that will be read.
+	private static final int MAX_STRING_LENGTH = Short.MAX_VALUE;
+
+	// The maximum amount of interned Strings kept before the cache is cleared.
+	private static final int MAX_INTERNED_STRINGS = 1024;
+
+	// Strings that are sent over and over again, like owner names, are shared instead of kept as duplicates.
+	private static final ConcurrentMap<String, String> internedStrings = new ConcurrentHashMap<>();
+
+	private final ByteBuf dataStream;
+
+	public PacketReader(ByteBuf dataStream) {
+		this.dataStream = dataStream;
+	}
+
+	public boolean readBoolean() {
+		return dataStream.readBoolean();
+	}
+
+	public byte readByte() {
+		return dataStream.readByte();
+	}
+
+	public short readUnsignedByte() {
+		return dataStream.readUnsignedByte();
+	}
+
+	public short readShort() {
+		return dataStream.readShort();
+	}
+
+	public int readInt() {
+		return dataStream.readInt();
+	}
+
+	/**
+	 * Reads an int written by PacketWriter.writeVarInt().
+	 * @return the value read.
+	 */
+	public int readVarInt() {
+		int value = 0;
+		int shift = 0;
+		byte b;
+
+		do {
+			if (shift >= 35) {
+				throw new IllegalStateException("VarInt is too big.");
+			}
+
+			b = dataStream.readByte();
+			value |= (b & 0x7F) << shift;
+			shift += 7;
+		} while ((b & 0x80) != 0);
+
+		return value;
+	}
+
+	public long readLong() {
+		return dataStream.readLong();
+	}
+
+	/**
+	 * Reads a long written by PacketWriter.writeVarLong().
+	 * @return the value read.
+	 */
+	public long readVarLong() {
+		long value = 0;
+		int shift = 0;
+		byte b;
+
+		do {
+			if (shift >= 70) {
+				throw new IllegalStateException("VarLong is too big.");
+			}
+
+			b = dataStream.readByte();
+			value |= (long) (b & 0x7F) << shift;
+			shift += 7;
+		} while ((b & 0x80) != 0);
+
+		return value;
+	}
+
+	public float readFloat() {
+		return dataStream.readFloat();
+	}
+
+	public double readDouble() {
+		return dataStream.readDouble();
+	}
+
+	/**
+	 * Reads a String written by PacketWriter.writeString().
+	 * @return the String read.
+	 */
+	public String readString() {
+		int length = readVarInt();
+
+		if (length < 0 || length > MAX_STRING_LENGTH) {
+			throw new IllegalStateException("String length " + length + " is out of bounds.");
+		}
+
+		String value = dataStream.toString(dataStream.readerIndex(), length, StandardCharsets.UTF_8);
+		dataStream.skipBytes(length);
+
+		return value;
+	}
+
+	/**
+	 * Reads a String written by PacketWriter.writeString(), returning a shared instance if an equal String was read before.
+	 * Use this for Strings that are repeated across many TileEntities and kept around.
+	 * @return the String read.
+	 */
+	public String readInternedString() {
+		String value = readString();
+		String interned = internedStrings.putIfAbsent(value, value);
+
+		if (interned == null) {
+			if (internedStrings.size() > MAX_INTERNED_STRINGS) {
+				internedStrings.clear();
+			}
+
+			return value;
+		}
+
+		return interned;
+	}
+
+	public ByteBuf getDataStream() {
+		return dataStream;
+	}
+}
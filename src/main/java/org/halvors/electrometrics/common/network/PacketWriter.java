@@ -0,0 +1,87 @@
+package org.halvors.electrometrics.common.network;
+
+import io.netty.buffer.ByteBuf;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * This is a typed writer over a ByteBuf, used by TileEntities to write their data without boxing it into a list first.
+ *
+ * @author halvors
+ */
+public class PacketWriter {
+	private final ByteBuf dataStream;
+
+	public PacketWriter(ByteBuf dataStream) {
+		this.dataStream = dataStream;
+	}
+
+	public void writeBoolean(boolean value) {
+		dataStream.writeBoolean(value);
+	}
+
+	public void writeByte(int value) {
+		dataStream.writeByte(value);
+	}
+
+	public void writeShort(int value) {
+		dataStream.writeShort(value);
+	}
+
+	public void writeInt(int value) {
+		dataStream.writeInt(value);
+	}
+
+	/**
+	 * Writes an int using 1 to 5 bytes, small non-negative values use the least space.
+	 * @param value the value to write.
+	 */
+	public void writeVarInt(int value) {
+		while ((value & ~0x7F) != 0) {
+			dataStream.writeByte((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+
+		dataStream.writeByte(value);
+	}
+
+	public void writeLong(long value) {
+		dataStream.writeLong(value);
+	}
+
+	/**
+	 * Writes a long using 1 to 10 bytes, small non-negative values use the least space.
+	 * @param value the value to write.
+	 */
+	public void writeVarLong(long value) {
+		while ((value & ~0x7FL) != 0) {
+			dataStream.writeByte((int) (value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+
+		dataStream.writeByte((int) value);
+	}
+
+	public void writeFloat(float value) {
+		dataStream.writeFloat(value);
+	}
+
+	public void writeDouble(double value) {
+		dataStream.writeDouble(value);
+	}
+
+	/**
+	 * Writes a String as UTF-8, prefixed with it's length in bytes as a varint.
+	 * @param value the String to write.
+	 */
+	public void writeString(String value) {
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+
+		writeVarInt(bytes.length);
+		dataStream.writeBytes(bytes);
+	}
+
+	public ByteBuf getDataStream() {
+		return dataStream;
+	}
+}
@@ -0,0 +1,228 @@
+package org.halvors.electrometrics.common.network;
+
+import net.minecraft.entity.player.EntityPlayerMP;
+import net.minecraft.world.World;
+import org.halvors.electrometrics.common.ConfigurationManager.Network;
+import org.halvors.electrometrics.common.base.tile.ITileSynchronizable;
+import org.halvors.electrometrics.common.network.packet.PacketTileEntity;
+import org.halvors.electrometrics.common.tile.TileEntity;
+import org.halvors.electrometrics.common.util.location.Chunk;
+import org.halvors.electrometrics.common.util.location.Location;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * This is the TileSubscriptionManager which keeps track of players that have the GUI of a TileEntity open, and pushes
+ * the changed fields of that TileEntity to them at a fixed tick-based rate, independent of the client's framerate.
+ * Subscribed players are left out of the regular synchronization of that TileEntity, so they get every change once.
+ *
+ * @author halvors
+ */
+public class TileSubscriptionManager {
+	// The subscription of every TileEntity that has subscribers.
+	private static final Map<TileEntity, Subscription> subscriptions = new HashMap<>();
+
+	// The TileEntity every subscribed player is subscribed to.
+	private static final Map<EntityPlayerMP, TileEntity> subscribedTiles = new HashMap<>();
+
+	// Ticks passed since the last push.
+	private static int ticks;
+
+	// The maximum distance a player can be from a TileEntity to subscribe to it.
+	private static final double MAX_DISTANCE = 64;
+
+	// Subscription requests from clients, queued by the network threads and handled on the server thread.
+	private static final Queue<Request> requests = new ConcurrentLinkedQueue<>();
+
+	/**
+	 * Queues a subscription request of a client, it's handled at the next server tick. Can be called from any thread.
+	 * @param player the player that sent the request.
+	 * @param location the location of the TileEntity.
+	 * @param isSubscribing whether the player subscribes to or unsubscribes from the TileEntity.
+	 */
+	public static void enqueue(EntityPlayerMP player, Location location, boolean isSubscribing) {
+		requests.add(new Request(player, location, isSubscribing));
+	}
+
+	/**
+	 * Subscribes a player to a TileEntity, replacing any previous subscription of the player. The complete state of the
+	 * TileEntity is sent right away.
+	 * @param player the player to subscribe.
+	 * @param tile the TileEntity to subscribe to.
+	 */
+	public static <T extends TileEntity & ITileSynchronizable> void subscribe(EntityPlayerMP player, T tile) {
+		unsubscribe(player);
+
+		Subscription subscription = subscriptions.get(tile);
+
+		if (subscription == null) {
+			subscription = new Subscription();
+			subscriptions.put(tile, subscription);
+		}
+
+		subscription.players.add(player);
+		subscribedTiles.put(player, tile);
+
+		NetworkHandler.sendTo(new PacketTileEntity(tile), player);
+	}
+
+	/**
+	 * Removes the subscription of a player, if any.
+	 * @param player the player to unsubscribe.
+	 */
+	public static void unsubscribe(EntityPlayerMP player) {
+		TileEntity tileEntity = subscribedTiles.remove(player);
+
+		if (tileEntity != null) {
+			Subscription subscription = subscriptions.get(tileEntity);
+
+			if (subscription != null) {
+				subscription.players.remove(player);
+
+				if (subscription.players.isEmpty()) {
+					subscriptions.remove(tileEntity);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns whether or not a player is subscribed to the given TileEntity.
+	 */
+	public static boolean isSubscribed(EntityPlayerMP player, TileEntity tileEntity) {
+		return !subscribedTiles.isEmpty() && subscribedTiles.get(player) == tileEntity;
+	}
+
+	/**
+	 * Called when fields of a TileEntity have changed, remembers them if the TileEntity has subscribers.
+	 * @param tileEntity the TileEntity that changed.
+	 * @param fields the mask of fields that changed.
+	 */
+	public static void onChanged(TileEntity tileEntity, int fields) {
+		if (!subscriptions.isEmpty()) {
+			Subscription subscription = subscriptions.get(tileEntity);
+
+			if (subscription != null) {
+				subscription.dirtyFields |= fields;
+			}
+		}
+	}
+
+	/**
+	 * Called at the end of every server tick, pushes the changed fields to the subscribers once the interval has passed.
+	 */
+	public static void onServerTick() {
+		handleRequests();
+
+		if (++ticks < Network.subscriptionInterval) {
+			return;
+		}
+
+		ticks = 0;
+
+		for (Iterator<Map.Entry<TileEntity, Subscription>> iterator = subscriptions.entrySet().iterator(); iterator.hasNext(); ) {
+			Map.Entry<TileEntity, Subscription> entry = iterator.next();
+			TileEntity tileEntity = entry.getKey();
+			Subscription subscription = entry.getValue();
+
+			if (tileEntity.isInvalid()) {
+				for (EntityPlayerMP player : subscription.players) {
+					subscribedTiles.remove(player);
+				}
+
+				iterator.remove();
+			} else if (subscription.dirtyFields != 0) {
+				push(tileEntity, subscription);
+			}
+		}
+	}
+
+	public static void clear() {
+		subscriptions.clear();
+		subscribedTiles.clear();
+		requests.clear();
+		ticks = 0;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T extends TileEntity & ITileSynchronizable> void handleRequests() {
+		Request request;
+
+		while ((request = requests.poll()) != null) {
+			EntityPlayerMP player = request.player;
+
+			// The player no longer gets the changes that were not pushed yet when the subscription ends.
+			sendUnpushed(player);
+
+			if (!request.isSubscribing) {
+				unsubscribe(player);
+
+				continue;
+			}
+
+			World world = player.worldObj;
+			Location location = request.location;
+
+			// Never load chunks on behalf of a client, and only allow subscribing to TileEntities nearby. Players that
+			// logged out after sending the request are dead by now.
+			if (!player.isDead &&
+					location.getDimensionId() == world.provider.dimensionId &&
+					new Chunk(location).exists(world) &&
+					player.getDistanceSq(location.getX(), location.getY(), location.getZ()) <= MAX_DISTANCE * MAX_DISTANCE) {
+				net.minecraft.tileentity.TileEntity tileEntity = world.getTileEntity(location.getX(), location.getY(), location.getZ());
+
+				if (tileEntity instanceof TileEntity && tileEntity instanceof ITileSynchronizable) {
+					subscribe(player, (T) tileEntity);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Sends the changed fields not pushed yet of the TileEntity a player is subscribed to, to that player only.
+	 * @param player the subscribed player.
+	 */
+	@SuppressWarnings("unchecked")
+	private static <T extends TileEntity & ITileSynchronizable> void sendUnpushed(EntityPlayerMP player) {
+		TileEntity tileEntity = subscribedTiles.get(player);
+		Subscription subscription = tileEntity != null ? subscriptions.get(tileEntity) : null;
+
+		if (subscription != null && subscription.dirtyFields != 0 && !tileEntity.isInvalid()) {
+			NetworkHandler.sendTo(new PacketTileEntity((T) tileEntity, subscription.dirtyFields), player);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T extends TileEntity & ITileSynchronizable> void push(TileEntity tileEntity, Subscription subscription) {
+		PacketTileEntity packet = new PacketTileEntity((T) tileEntity, subscription.dirtyFields);
+
+		for (EntityPlayerMP player : subscription.players) {
+			NetworkHandler.sendTo(packet, player);
+		}
+
+		subscription.dirtyFields = 0;
+	}
+
+	private static class Request {
+		private final EntityPlayerMP player;
+		private final Location location;
+		private final boolean isSubscribing;
+
+		private Request(EntityPlayerMP player, Location location, boolean isSubscribing) {
+			this.player = player;
+			this.location = location;
+			this.isSubscribing = isSubscribing;
+		}
+	}
+
+	private static class Subscription {
+		private final List<EntityPlayerMP> players = new ArrayList<>(1);
+		private int dirtyFields;
+	}
+}
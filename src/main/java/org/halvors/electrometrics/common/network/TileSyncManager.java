@@ -0,0 +1,157 @@
+package org.halvors.electrometrics.common.network;
+
+import io.netty.buffer.ByteBuf;
+import net.minecraft.entity.player.EntityPlayerMP;
+import net.minecraft.world.World;
+import org.halvors.electrometrics.Electrometrics;
+import org.halvors.electrometrics.common.ConfigurationManager.Network;
+import org.halvors.electrometrics.common.base.tile.ITileSynchronizable;
+import org.halvors.electrometrics.common.profiler.TileProfiler;
+import org.halvors.electrometrics.common.profiler.TileProfiler.Section;
+import org.halvors.electrometrics.common.tile.TileEntity;
+import org.halvors.electrometrics.common.util.location.Chunk;
+import org.halvors.electrometrics.common.util.location.Location;
+
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * This is the TileSyncManager which coalesces changed tile fields and hands them to the TileUpdateBatcher as one delta
+ * update per tile every synchronization interval.
+ *
+ * @author halvors
+ */
+public class TileSyncManager {
+	// Tiles that have changed fields during the current tick.
+	private static final Set<TileEntity> pendingTiles = new LinkedHashSet<>();
+
+	// Tiles that have changed fields during an earlier tick, these are the ones sent at the next synchronization.
+	// Holding tiles back for a tick makes sure that the block changes of newly placed blocks reach the clients first.
+	private static final Set<TileEntity> readyTiles = new LinkedHashSet<>();
+
+	// Ticks passed since the last synchronization.
+	private static int ticks;
+
+	// The maximum distance a player can be from a TileEntity to change it.
+	private static final double MAX_CLIENT_DISTANCE = 64;
+
+	// Changes sent by clients, queued by the network threads and applied on the server thread.
+	private static final Queue<ClientUpdate> clientUpdates = new ConcurrentLinkedQueue<>();
+
+	/**
+	 * Queues a tile for the next synchronization, queuing the same tile multiple times has no effect.
+	 * @param tile the tile that has changed fields.
+	 */
+	public static <T extends TileEntity & ITileSynchronizable> void enqueue(T tile) {
+		pendingTiles.add(tile);
+	}
+
+	/**
+	 * Queues fields a client has changed, they are applied at the next server tick. Can be called from any thread.
+	 * @param player the player that sent the change.
+	 * @param location the location of the tile.
+	 * @param fields the mask of fields present in the data.
+	 * @param data the retained packet data, it's released once applied.
+	 */
+	public static void enqueueClientUpdate(EntityPlayerMP player, Location location, int fields, ByteBuf data) {
+		clientUpdates.add(new ClientUpdate(player, location, fields, data));
+	}
+
+	/**
+	 * Called at the end of every server tick, sends the changed fields of all tiles queued before this tick once the
+	 * interval has passed.
+	 */
+	public static void onServerTick() {
+		applyClientUpdates();
+
+		if (++ticks >= Network.syncInterval) {
+			ticks = 0;
+
+			for (Iterator<TileEntity> iterator = readyTiles.iterator(); iterator.hasNext(); ) {
+				TileEntity tileEntity = iterator.next();
+				iterator.remove();
+
+				if (!tileEntity.isInvalid() && tileEntity.hasWorldObj()) {
+					sync(tileEntity);
+				}
+			}
+		}
+
+		readyTiles.addAll(pendingTiles);
+		pendingTiles.clear();
+	}
+
+	public static void clear() {
+		pendingTiles.clear();
+		readyTiles.clear();
+		ticks = 0;
+
+		ClientUpdate clientUpdate;
+
+		while ((clientUpdate = clientUpdates.poll()) != null) {
+			PacketBufferTracker.release(clientUpdate.data);
+		}
+	}
+
+	private static void applyClientUpdates() {
+		ClientUpdate clientUpdate;
+
+		while ((clientUpdate = clientUpdates.poll()) != null) {
+			try {
+				EntityPlayerMP player = clientUpdate.player;
+				World world = player.worldObj;
+				Location location = clientUpdate.location;
+
+				// Never load chunks on behalf of a client, and only allow changing TileEntities nearby.
+				if (location.getDimensionId() == world.provider.dimensionId &&
+						new Chunk(location).exists(world) &&
+						player.getDistanceSq(location.getX(), location.getY(), location.getZ()) <= MAX_CLIENT_DISTANCE * MAX_CLIENT_DISTANCE) {
+					net.minecraft.tileentity.TileEntity tileEntity = world.getTileEntity(location.getX(), location.getY(), location.getZ());
+
+					if (tileEntity instanceof ITileSynchronizable) {
+						ITileSynchronizable tileSynchronizable = (ITileSynchronizable) tileEntity;
+
+						// Ignore the whole change if it contains fields clients are not allowed to change.
+						if ((clientUpdate.fields & ~tileSynchronizable.getClientFields()) == 0) {
+							long startTime = TileProfiler.start();
+							tileSynchronizable.readPacketData(new PacketReader(clientUpdate.data), clientUpdate.fields);
+							TileProfiler.stop(tileEntity, Section.DECODE, startTime);
+						}
+					}
+				}
+			} catch (Exception e) {
+				Electrometrics.getInstance().getLogger().warn("Failed to apply a change sent by " + clientUpdate.player.getCommandSenderName() + ".", e);
+			} finally {
+				PacketBufferTracker.release(clientUpdate.data);
+			}
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T extends TileEntity & ITileSynchronizable> void sync(TileEntity tileEntity) {
+		T tile = (T) tileEntity;
+		int fields = tile.getDirtyFields();
+
+		if (fields != 0) {
+			TileUpdateBatcher.add(tile, fields);
+			tile.clearDirtyFields();
+		}
+	}
+
+	private static class ClientUpdate {
+		private final EntityPlayerMP player;
+		private final Location location;
+		private final int fields;
+		private final ByteBuf data;
+
+		private ClientUpdate(EntityPlayerMP player, Location location, int fields, ByteBuf data) {
+			this.player = player;
+			this.location = location;
+			this.fields = fields;
+			this.data = data;
+		}
+	}
+}
@@ -0,0 +1,76 @@
+package org.halvors.electrometrics.common.network;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import net.minecraft.entity.player.EntityPlayerMP;
+import org.halvors.electrometrics.common.base.tile.ITileSynchronizable;
+import org.halvors.electrometrics.common.network.packet.PacketMultipleTileEntity;
+import org.halvors.electrometrics.common.profiler.TileProfiler;
+import org.halvors.electrometrics.common.profiler.TileProfiler.Section;
+import org.halvors.electrometrics.common.tile.TileEntity;
+import org.halvors.electrometrics.common.util.location.Location;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This is the TileUpdateBatcher which collects all TileEntity updates produced during a server tick, and sends them to
+ * each player as one PacketMultipleTileEntity at the end of the tick.
+ *
+ * @author halvors
+ */
+public class TileUpdateBatcher {
+	// The pending batch of every player receiving updates this tick.
+	private static final Map<EntityPlayerMP, PacketMultipleTileEntity> batches = new LinkedHashMap<>();
+
+	/**
+	 * Adds the given fields of a tile to the batch of every player that can see it, except players that get it's changes
+	 * from the TileSubscriptionManager.
+	 * @param tile the tile to synchronize.
+	 * @param fields the mask of fields to include.
+	 */
+	public static <T extends TileEntity & ITileSynchronizable> void add(T tile, int fields) {
+		List<EntityPlayerMP> players = NetworkHandler.getReceivers(tile);
+
+		if (players.isEmpty()) {
+			return;
+		}
+
+		// The data is written once and shared between all players.
+		ByteBuf data = Unpooled.buffer();
+		long startTime = TileProfiler.start();
+		tile.writePacketData(new PacketWriter(data), fields);
+		TileProfiler.stop(tile, Section.ENCODE, startTime);
+
+		Location location = new Location(tile);
+
+		for (EntityPlayerMP player : players) {
+			if (TileSubscriptionManager.isSubscribed(player, tile)) {
+				continue;
+			}
+
+			PacketMultipleTileEntity batch = batches.get(player);
+
+			if (batch == null) {
+				batch = new PacketMultipleTileEntity();
+				batches.put(player, batch);
+			}
+
+			batch.add(location, fields, data);
+		}
+	}
+
+	/**
+	 * Called at the end of every server tick, sends all pending batches.
+	 */
+	public static void flush() {
+		for (Map.Entry<EntityPlayerMP, PacketMultipleTileEntity> entry : batches.entrySet()) {
+			if (!entry.getValue().isEmpty()) {
+				NetworkHandler.sendTo(entry.getValue(), entry.getKey());
+			}
+		}
+
+		batches.clear();
+	}
+}
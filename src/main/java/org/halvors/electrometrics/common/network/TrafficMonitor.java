@@ -0,0 +1,283 @@
+package org.halvors.electrometrics.common.network;
+
+import cpw.mods.fml.common.network.FMLEmbeddedChannel;
+import cpw.mods.fml.common.network.FMLOutboundHandler;
+import cpw.mods.fml.common.network.NetworkRegistry;
+import cpw.mods.fml.common.network.NetworkRegistry.TargetPoint;
+import cpw.mods.fml.common.network.internal.FMLProxyPacket;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelDuplexHandler;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
+import net.minecraft.entity.player.EntityPlayerMP;
+import net.minecraft.network.INetHandler;
+import net.minecraft.network.NetHandlerPlayServer;
+import org.halvors.electrometrics.Electrometrics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This is the TrafficMonitor which counts the packets and bytes we send and receive, by packet type, by dimension and by
+ * player. It sits in the Netty pipeline of our channel right next to FML's own handler, so it sees every packet exactly as
+ * it's put on the wire. Packets sent to many players at once, like sendToAll(), are counted once.
+ *
+ * @author halvors
+ */
+public class TrafficMonitor {
+	private static final String HANDLER_NAME = "electrometrics:traffic";
+
+	/**
+	 * The direction of traffic.
+	 */
+	public enum Direction {
+		SENT,
+		RECEIVED
+	}
+
+	/**
+	 * The ways traffic is grouped.
+	 */
+	public enum Category {
+		TYPE,
+		DIMENSION,
+		PLAYER
+	}
+
+	// The names of all packet types, by discriminator.
+	private static final String[] typeNames = new String[256];
+
+	// The counters, by direction and category, and then by name.
+	private static final List<List<ConcurrentHashMap<String, Counter>>> counters = new ArrayList<>();
+
+	// The time the counters were last rolled over to a new second.
+	private static long lastRollTime = System.currentTimeMillis();
+
+	// Server ticks passed since the last roll.
+	private static int ticks;
+
+	static {
+		for (Direction direction : Direction.values()) {
+			List<ConcurrentHashMap<String, Counter>> categoryCounters = new ArrayList<>();
+
+			for (Category category : Category.values()) {
+				categoryCounters.add(new ConcurrentHashMap<String, Counter>());
+			}
+
+			counters.add(categoryCounters);
+		}
+	}
+
+	/**
+	 * Gives a packet type a name to be counted by.
+	 * @param discriminator the discriminator the packet type is registered with.
+	 * @param type the class of the packet type.
+	 */
+	public static void registerType(int discriminator, Class<?> type) {
+		typeNames[discriminator & 0xFF] = type.getSimpleName();
+	}
+
+	/**
+	 * Adds the monitor to the pipeline of a channel.
+	 * @param channel the channel to monitor.
+	 */
+	public static void install(FMLEmbeddedChannel channel) {
+		if (channel != null && channel.pipeline().get(HANDLER_NAME) == null) {
+			if (channel.pipeline().get("fml:outbound") != null) {
+				channel.pipeline().addAfter("fml:outbound", HANDLER_NAME, new Handler());
+			} else {
+				Electrometrics.getInstance().getLogger().warn("Can't monitor network traffic, FML's outbound handler was not found.");
+			}
+		}
+	}
+
+	/**
+	 * Returns the counters of a direction and category, by name.
+	 */
+	public static Map<String, Counter> getCounters(Direction direction, Category category) {
+		return Collections.unmodifiableMap(counters.get(direction.ordinal()).get(category.ordinal()));
+	}
+
+	/**
+	 * Returns a line for every counter of a direction and category, the busiest first.
+	 */
+	public static List<String> getReport(Direction direction, Category category) {
+		List<Map.Entry<String, Counter>> entries = new ArrayList<>(counters.get(direction.ordinal()).get(category.ordinal()).entrySet());
+		List<String> lines = new ArrayList<>(entries.size());
+
+		Collections.sort(entries, new Comparator<Map.Entry<String, Counter>>() {
+			@Override
+			public int compare(Map.Entry<String, Counter> entry1, Map.Entry<String, Counter> entry2) {
+				return Long.compare(entry2.getValue().getBytes(), entry1.getValue().getBytes());
+			}
+		});
+
+		for (Map.Entry<String, Counter> entry : entries) {
+			Counter counter = entry.getValue();
+
+			lines.add(String.format("%s %s %s: %d packets, %d bytes, %.1f packets/s, %.1f bytes/s", direction.name().toLowerCase(), category.name().toLowerCase(),
+					entry.getKey(), counter.getPackets(), counter.getBytes(), counter.getPacketRate(), counter.getByteRate()));
+		}
+
+		return lines;
+	}
+
+	/**
+	 * Removes the counters of a player, called when the player logs out so that the counters of players that have left
+	 * are not kept forever.
+	 * @param player the player that logged out.
+	 */
+	public static void remove(EntityPlayerMP player) {
+		for (List<ConcurrentHashMap<String, Counter>> categoryCounters : counters) {
+			categoryCounters.get(Category.PLAYER.ordinal()).remove(player.getCommandSenderName());
+		}
+	}
+
+	public static void reset() {
+		for (List<ConcurrentHashMap<String, Counter>> categoryCounters : counters) {
+			for (Map<String, Counter> nameCounters : categoryCounters) {
+				nameCounters.clear();
+			}
+		}
+	}
+
+	/**
+	 * Called at the end of every server tick, updates the rates of all counters once a second.
+	 */
+	public static void onServerTick() {
+		if (++ticks >= 20) {
+			long time = System.currentTimeMillis();
+			long elapsed = Math.max(1, time - lastRollTime);
+
+			for (List<ConcurrentHashMap<String, Counter>> categoryCounters : counters) {
+				for (Map<String, Counter> nameCounters : categoryCounters) {
+					for (Counter counter : nameCounters.values()) {
+						counter.roll(elapsed);
+					}
+				}
+			}
+
+			lastRollTime = time;
+			ticks = 0;
+		}
+	}
+
+	private static void record(Direction direction, int discriminator, Integer dimensionId, EntityPlayerMP player, int bytes) {
+		List<ConcurrentHashMap<String, Counter>> categoryCounters = counters.get(direction.ordinal());
+		String typeName = typeNames[discriminator];
+
+		getCounter(categoryCounters.get(Category.TYPE.ordinal()), typeName != null ? typeName : "#" + discriminator).add(bytes);
+
+		if (dimensionId != null) {
+			getCounter(categoryCounters.get(Category.DIMENSION.ordinal()), dimensionId.toString()).add(bytes);
+		}
+
+		if (player != null) {
+			getCounter(categoryCounters.get(Category.PLAYER.ordinal()), player.getCommandSenderName()).add(bytes);
+		}
+	}
+
+	private static Counter getCounter(ConcurrentHashMap<String, Counter> nameCounters, String name) {
+		Counter counter = nameCounters.get(name);
+
+		if (counter == null) {
+			counter = new Counter();
+			Counter previousCounter = nameCounters.putIfAbsent(name, counter);
+
+			if (previousCounter != null) {
+				counter = previousCounter;
+			}
+		}
+
+		return counter;
+	}
+
+	/**
+	 * The packets and bytes counted for a single name, with their rates during the last second.
+	 */
+	public static class Counter {
+		private final AtomicLong packets = new AtomicLong();
+		private final AtomicLong bytes = new AtomicLong();
+		private final AtomicLong secondPackets = new AtomicLong();
+		private final AtomicLong secondBytes = new AtomicLong();
+		private volatile double packetRate;
+		private volatile double byteRate;
+
+		private void add(int packetBytes) {
+			packets.incrementAndGet();
+			bytes.addAndGet(packetBytes);
+			secondPackets.incrementAndGet();
+			secondBytes.addAndGet(packetBytes);
+		}
+
+		private void roll(long elapsed) {
+			packetRate = secondPackets.getAndSet(0) * 1000D / elapsed;
+			byteRate = secondBytes.getAndSet(0) * 1000D / elapsed;
+		}
+
+		public long getPackets() {
+			return packets.get();
+		}
+
+		public long getBytes() {
+			return bytes.get();
+		}
+
+		public double getPacketRate() {
+			return packetRate;
+		}
+
+		public double getByteRate() {
+			return byteRate;
+		}
+	}
+
+	@ChannelHandler.Sharable
+	private static class Handler extends ChannelDuplexHandler {
+		@Override
+		public void write(ChannelHandlerContext context, Object message, ChannelPromise promise) throws Exception {
+			if (message instanceof FMLProxyPacket) {
+				ByteBuf payload = ((FMLProxyPacket) message).payload();
+				Object target = context.channel().attr(FMLOutboundHandler.FML_MESSAGETARGETARGS).get();
+				EntityPlayerMP player = null;
+				Integer dimensionId = null;
+
+				if (target instanceof EntityPlayerMP) {
+					player = (EntityPlayerMP) target;
+					dimensionId = player.dimension;
+				} else if (target instanceof Integer) {
+					dimensionId = (Integer) target;
+				} else if (target instanceof TargetPoint) {
+					dimensionId = ((TargetPoint) target).dimension;
+				}
+
+				if (payload.isReadable()) {
+					record(Direction.SENT, payload.getUnsignedByte(payload.readerIndex()), dimensionId, player, payload.readableBytes());
+				}
+			}
+
+			super.write(context, message, promise);
+		}
+
+		@Override
+		public void channelRead(ChannelHandlerContext context, Object message) throws Exception {
+			if (message instanceof FMLProxyPacket) {
+				ByteBuf payload = ((FMLProxyPacket) message).payload();
+				INetHandler netHandler = context.channel().attr(NetworkRegistry.NET_HANDLER).get();
+				EntityPlayerMP player = netHandler instanceof NetHandlerPlayServer ? ((NetHandlerPlayServer) netHandler).playerEntity : null;
+
+				if (payload.isReadable()) {
+					record(Direction.RECEIVED, payload.getUnsignedByte(payload.readerIndex()), player != null ? player.dimension : null, player, payload.readableBytes());
+				}
+			}
+
+			super.channelRead(context, message);
+		}
+	}
+}
@@ -4,13 +4,11 @@ import cpw.mods.fml.common.network.simpleimpl.IMessage;
 import cpw.mods.fml.common.network.simpleimpl.IMessageHandler;
 import cpw.mods.fml.common.network.simpleimpl.MessageContext;
 import io.netty.buffer.ByteBuf;
-import org.halvors.electrometrics.common.ConfigurationManager.Client;
 import org.halvors.electrometrics.common.ConfigurationManager.General;
 import org.halvors.electrometrics.common.ConfigurationManager.Integration;
 import org.halvors.electrometrics.common.ConfigurationManager.Machine;
 import org.halvors.electrometrics.common.base.MachineType;
 import org.halvors.electrometrics.common.network.NetworkHandler;
-import org.halvors.electrometrics.common.util.energy.EnergyUnit;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -42,10 +40,6 @@ public class PacketConfiguration implements IMessage {
 
         // Integration.
         Integration.isMekanismEnabled = dataStream.readBoolean();
-
-		// TODO: Should we sync this?
-		// Client.
-		Client.energyUnit = EnergyUnit.values()[dataStream.readInt()];
 	}
 
 	@Override
@@ -68,10 +62,6 @@ public class PacketConfiguration implements IMessage {
         // Integration.
 		objects.add(Integration.isMekanismEnabled);
 
-		// TODO: Should we sync this?
-		// Client.
-		//objects.add(Client.energyUnit.ordinal());
-
 		NetworkHandler.writeObjects(objects, dataStream);
 	}
 
@@ -0,0 +1,245 @@
+package org.halvors.electrometrics.common.network.packet;
+
+import cpw.mods.fml.common.network.simpleimpl.IMessage;
+import cpw.mods.fml.common.network.simpleimpl.IMessageHandler;
+import cpw.mods.fml.common.network.simpleimpl.MessageContext;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import net.minecraft.world.ChunkCoordIntPair;
+import org.halvors.electrometrics.common.base.tile.ITileNetworkable;
+import org.halvors.electrometrics.common.base.tile.ITileSynchronizable;
+import org.halvors.electrometrics.common.network.ClientTileUpdateQueue;
+import org.halvors.electrometrics.common.network.NetworkHandler;
+import org.halvors.electrometrics.common.network.PacketBufferTracker;
+import org.halvors.electrometrics.common.network.PacketWriter;
+import org.halvors.electrometrics.common.profiler.TileProfiler;
+import org.halvors.electrometrics.common.profiler.TileProfiler.Section;
+import org.halvors.electrometrics.common.util.location.Location;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * This is a packet that carries the updates of multiple TileEntities, grouped by dimension and chunk, using chunk-relative
+ * coordinates. It can optionally be compressed, which is used for complete chunk snapshots.
+ *
+ * @author halvors
+ */
+public class PacketMultipleTileEntity implements IMessage {
+	// The maximum size in bytes of uncompressed data that will be accepted.
+	private static final int MAX_UNCOMPRESSED_LENGTH = 2 * 1024 * 1024;
+
+	// The updates grouped by dimension and then by chunk.
+	private final Map<Integer, Map<Long, List<Entry>>> dimensions = new LinkedHashMap<>();
+	private boolean isCompressed;
+	private ByteBuf storedBuffer = null;
+
+	public PacketMultipleTileEntity() {
+
+	}
+
+	public PacketMultipleTileEntity(boolean isCompressed) {
+		this.isCompressed = isCompressed;
+	}
+
+	/**
+	 * Adds an update to this packet.
+	 * @param location the location of the TileEntity.
+	 * @param fields the mask of fields present in the data.
+	 * @param data the already written packet data, it's not consumed.
+	 */
+	public void add(Location location, int fields, ByteBuf data) {
+		Map<Long, List<Entry>> chunks = dimensions.get(location.getDimensionId());
+
+		if (chunks == null) {
+			chunks = new LinkedHashMap<>();
+			dimensions.put(location.getDimensionId(), chunks);
+		}
+
+		long chunkKey = ChunkCoordIntPair.chunkXZ2Int(location.getX() >> 4, location.getZ() >> 4);
+		List<Entry> entries = chunks.get(chunkKey);
+
+		if (entries == null) {
+			entries = new ArrayList<>();
+			chunks.put(chunkKey, entries);
+		}
+
+		entries.add(new Entry(location, fields, data));
+	}
+
+	/**
+	 * Adds the given fields of a TileEntity to this packet, TileEntities that are not ITileSynchronizable always add all
+	 * their data.
+	 * @param tile the TileEntity to add.
+	 * @param fields the mask of fields to include.
+	 */
+	public <T extends org.halvors.electrometrics.common.tile.TileEntity & ITileNetworkable> void add(T tile, int fields) {
+		ByteBuf data = Unpooled.buffer();
+
+		long startTime = TileProfiler.start();
+
+		if (tile instanceof ITileSynchronizable) {
+			ITileSynchronizable tileSynchronizable = (ITileSynchronizable) tile;
+			tileSynchronizable.writePacketData(new PacketWriter(data), fields);
+		} else {
+			NetworkHandler.writeObjects(tile.getPacketData(new ArrayList<>()), data);
+		}
+
+		TileProfiler.stop(tile, Section.ENCODE, startTime);
+
+		add(new Location(tile), fields, data);
+	}
+
+	public boolean isEmpty() {
+		return dimensions.isEmpty();
+	}
+
+	@Override
+	public void fromBytes(ByteBuf dataStream) {
+		if (dataStream.readBoolean()) {
+			int length = dataStream.readInt();
+
+			if (length < 0 || length > MAX_UNCOMPRESSED_LENGTH) {
+				throw new IllegalStateException("Uncompressed packet length " + length + " is out of bounds.");
+			}
+
+			byte[] compressed = new byte[dataStream.readableBytes()];
+			dataStream.readBytes(compressed);
+
+			storedBuffer = PacketBufferTracker.retain(Unpooled.wrappedBuffer(inflate(compressed, length)));
+		} else {
+			storedBuffer = PacketBufferTracker.retain(dataStream);
+		}
+	}
+
+	@Override
+	public void toBytes(ByteBuf dataStream) {
+		dataStream.writeBoolean(isCompressed);
+
+		if (isCompressed) {
+			ByteBuf body = Unpooled.buffer();
+			writeBody(body);
+
+			byte[] uncompressed = new byte[body.readableBytes()];
+			body.readBytes(uncompressed);
+
+			dataStream.writeInt(uncompressed.length);
+			deflate(uncompressed, dataStream);
+		} else {
+			writeBody(dataStream);
+		}
+	}
+
+	private void writeBody(ByteBuf dataStream) {
+		dataStream.writeInt(dimensions.size());
+
+		for (Map.Entry<Integer, Map<Long, List<Entry>>> dimension : dimensions.entrySet()) {
+			dataStream.writeInt(dimension.getKey());
+			dataStream.writeInt(dimension.getValue().size());
+
+			for (List<Entry> entries : dimension.getValue().values()) {
+				Location chunkLocation = entries.get(0).location;
+
+				dataStream.writeInt(chunkLocation.getX() >> 4);
+				dataStream.writeInt(chunkLocation.getZ() >> 4);
+				dataStream.writeShort(entries.size());
+
+				for (Entry entry : entries) {
+					dataStream.writeByte(((entry.location.getX() & 15) << 4) | (entry.location.getZ() & 15));
+					dataStream.writeByte(entry.location.getY());
+					dataStream.writeInt(entry.fields);
+					dataStream.writeShort(entry.data.readableBytes());
+					dataStream.writeBytes(entry.data, entry.data.readerIndex(), entry.data.readableBytes());
+				}
+			}
+		}
+	}
+
+	private static void deflate(byte[] uncompressed, ByteBuf dataStream) {
+		Deflater deflater = new Deflater();
+		byte[] buffer = new byte[1024];
+
+		try {
+			deflater.setInput(uncompressed);
+			deflater.finish();
+
+			while (!deflater.finished()) {
+				dataStream.writeBytes(buffer, 0, deflater.deflate(buffer));
+			}
+		} finally {
+			deflater.end();
+		}
+	}
+
+	private static byte[] inflate(byte[] compressed, int length) {
+		Inflater inflater = new Inflater();
+		byte[] uncompressed = new byte[length];
+
+		try {
+			inflater.setInput(compressed);
+
+			if (inflater.inflate(uncompressed) != length) {
+				throw new IllegalStateException("Compressed packet data has the wrong length.");
+			}
+		} catch (DataFormatException e) {
+			throw new IllegalStateException("Compressed packet data is malformed.", e);
+		} finally {
+			inflater.end();
+		}
+
+		return uncompressed;
+	}
+
+	private static class Entry {
+		private final Location location;
+		private final int fields;
+		private final ByteBuf data;
+
+		private Entry(Location location, int fields, ByteBuf data) {
+			this.location = location;
+			this.fields = fields;
+			this.data = data;
+		}
+	}
+
+	public static class PacketMultipleTileEntityMessage implements IMessageHandler<PacketMultipleTileEntity, IMessage> {
+		@Override
+		public IMessage onMessage(PacketMultipleTileEntity message, MessageContext messageContext) {
+			ByteBuf dataStream = message.storedBuffer;
+
+			try {
+				int dimensionCount = dataStream.readInt();
+
+				for (int i = 0; i < dimensionCount; i++) {
+					int dimensionId = dataStream.readInt();
+					int chunkCount = dataStream.readInt();
+
+					for (int j = 0; j < chunkCount; j++) {
+						int chunkX = dataStream.readInt();
+						int chunkZ = dataStream.readInt();
+						int entryCount = dataStream.readUnsignedShort();
+
+						for (int k = 0; k < entryCount; k++) {
+							int position = dataStream.readUnsignedByte();
+							int y = dataStream.readUnsignedByte();
+							int fields = dataStream.readInt();
+							ByteBuf data = dataStream.readSlice(dataStream.readUnsignedShort());
+
+							// The chunk data is applied on the client thread after this, so the TileEntity may not exist yet.
+							ClientTileUpdateQueue.enqueue(dimensionId, (chunkX << 4) | (position >> 4), y, (chunkZ << 4) | (position & 15), fields, PacketBufferTracker.retain(data));
+						}
+					}
+				}
+			} finally {
+				PacketBufferTracker.release(dataStream);
+			}
+
+			return null;
+		}
+	}
+}
@@ -0,0 +1,57 @@
+package org.halvors.electrometrics.common.network.packet;
+
+import cpw.mods.fml.common.network.simpleimpl.IMessage;
+import cpw.mods.fml.common.network.simpleimpl.IMessageHandler;
+import cpw.mods.fml.common.network.simpleimpl.MessageContext;
+import io.netty.buffer.ByteBuf;
+import org.halvors.electrometrics.common.base.tile.ITileSynchronizable;
+import org.halvors.electrometrics.common.network.TileSubscriptionManager;
+import org.halvors.electrometrics.common.tile.TileEntity;
+
+/**
+ * This is a packet that subscribes or unsubscribes the sending player to updates of a TileEntity, it's sent when the GUI of
+ * the TileEntity is opened and closed.
+ *
+ * @author halvors
+ */
+public class PacketSubscription extends PacketLocation implements IMessage {
+	private boolean isSubscribing;
+
+	public PacketSubscription() {
+
+	}
+
+	public <T extends TileEntity & ITileSynchronizable> PacketSubscription(T tile, boolean isSubscribing) {
+		super(tile);
+
+		this.isSubscribing = isSubscribing;
+	}
+
+	@Override
+	public void fromBytes(ByteBuf dataStream) {
+		super.fromBytes(dataStream);
+
+		isSubscribing = dataStream.readBoolean();
+	}
+
+	@Override
+	public void toBytes(ByteBuf dataStream) {
+		super.toBytes(dataStream);
+
+		dataStream.writeBoolean(isSubscribing);
+	}
+
+	public static class PacketSubscriptionMessage implements IMessageHandler<PacketSubscription, IMessage> {
+		@Override
+		public IMessage onMessage(PacketSubscription message, MessageContext messageContext) {
+			return onPacketSubscriptionMessage(message, messageContext);
+		}
+
+		public IMessage onPacketSubscriptionMessage(PacketSubscription message, MessageContext messageContext) {
+			// This runs on a network thread, the subscription is changed on the server thread.
+			TileSubscriptionManager.enqueue(messageContext.getServerHandler().playerEntity, message.getLocation(), message.isSubscribing);
+
+			return null;
+		}
+	}
+}
@@ -4,8 +4,16 @@ import cpw.mods.fml.common.network.simpleimpl.IMessage;
 import cpw.mods.fml.common.network.simpleimpl.IMessageHandler;
 import cpw.mods.fml.common.network.simpleimpl.MessageContext;
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
 import org.halvors.electrometrics.common.base.tile.ITileNetworkable;
+import org.halvors.electrometrics.common.base.tile.ITileSynchronizable;
+import org.halvors.electrometrics.common.network.ClientTileUpdateQueue;
 import org.halvors.electrometrics.common.network.NetworkHandler;
+import org.halvors.electrometrics.common.network.PacketBufferTracker;
+import org.halvors.electrometrics.common.network.PacketWriter;
+import org.halvors.electrometrics.common.network.TileSyncManager;
+import org.halvors.electrometrics.common.profiler.TileProfiler;
+import org.halvors.electrometrics.common.profiler.TileProfiler.Section;
 import org.halvors.electrometrics.common.tile.TileEntity;
 import org.halvors.electrometrics.common.util.location.Location;
 
@@ -18,55 +26,86 @@ import java.util.List;
  * @author halvors
  */
 public class PacketTileEntity extends PacketLocation implements IMessage {
-	private List<Object> objects;
+	private int fields;
+	private ByteBuf data;
 	private ByteBuf storedBuffer = null;
 
 	public PacketTileEntity() {
 
 	}
 
-	public PacketTileEntity(Location location, List<Object> objects) {
+	public PacketTileEntity(Location location, int fields, List<Object> objects) {
 		super(location);
 
-		this.objects = objects;
+		this.fields = fields;
+		this.data = Unpooled.buffer();
+
+		NetworkHandler.writeObjects(objects, data);
+	}
+
+	public PacketTileEntity(Location location, List<Object> objects) {
+		this(location, ITileSynchronizable.ALL_FIELDS, objects);
 	}
 
 	public <T extends TileEntity & ITileNetworkable> PacketTileEntity(T tile) {
-		this(new Location(tile), tile.getPacketData(new ArrayList<>()));
+		this(tile, ITileSynchronizable.ALL_FIELDS);
+	}
+
+	/**
+	 * Creates a packet containing only the given fields of the tile, tiles that are not ITileSynchronizable always send
+	 * all their data.
+	 * @param tile the tile to synchronize.
+	 * @param fields the mask of fields to include.
+	 */
+	public <T extends TileEntity & ITileNetworkable> PacketTileEntity(T tile, int fields) {
+		super(tile);
+
+		this.fields = fields;
+		this.data = Unpooled.buffer();
+
+		long startTime = TileProfiler.start();
+
+		if (tile instanceof ITileSynchronizable) {
+			ITileSynchronizable tileSynchronizable = (ITileSynchronizable) tile;
+			tileSynchronizable.writePacketData(new PacketWriter(data), fields);
+		} else {
+			NetworkHandler.writeObjects(tile.getPacketData(new ArrayList<>()), data);
+		}
+
+		TileProfiler.stop(tile, Section.ENCODE, startTime);
 	}
 
 	@Override
 	public void fromBytes(ByteBuf dataStream) {
 		super.fromBytes(dataStream);
 
-		storedBuffer = dataStream.copy();
+		fields = dataStream.readInt();
+		storedBuffer = PacketBufferTracker.retain(dataStream);
 	}
 
 	@Override
 	public void toBytes(ByteBuf dataStream) {
 		super.toBytes(dataStream);
 
-		NetworkHandler.writeObjects(objects, dataStream);
+		dataStream.writeInt(fields);
+		dataStream.writeBytes(data, data.readerIndex(), data.readableBytes());
 	}
 
 	public static class PacketTileEntityMessage implements IMessageHandler<PacketTileEntity, IMessage> {
 		@Override
 		public IMessage onMessage(PacketTileEntity message, MessageContext messageContext) {
-			TileEntity tileEntity = message.getLocation().getTileEntity(NetworkHandler.getWorld(messageContext));
+			// Changes from clients are applied on the server thread, which then owns the buffer.
+			if (messageContext.side.isServer()) {
+				TileSyncManager.enqueueClientUpdate(messageContext.getServerHandler().playerEntity, message.getLocation(), message.fields, message.storedBuffer);
 
-			if (tileEntity != null && tileEntity instanceof ITileNetworkable) {
-				ITileNetworkable tileNetworkable = (ITileNetworkable) tileEntity;
-
-				try {
-					tileNetworkable.handlePacketData(message.storedBuffer);
-				} catch (Exception e) {
-					e.printStackTrace();
-				}
-
-				message.storedBuffer.release();
+				return null;
 			}
 
+			// Updates from the server are applied on the client thread, in order with those of PacketMultipleTileEntity.
+			Location location = message.getLocation();
+			ClientTileUpdateQueue.enqueue(location.getDimensionId(), location.getX(), location.getY(), location.getZ(), message.fields, message.storedBuffer);
+
 			return null;
 		}
 	}
-}
\ No newline at end of file
+}
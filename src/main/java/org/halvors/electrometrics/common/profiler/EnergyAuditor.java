@@ -0,0 +1,122 @@
+package org.halvors.electrometrics.common.profiler;
+
+import net.minecraft.tileentity.TileEntity;
+import org.halvors.electrometrics.Electrometrics;
+import org.halvors.electrometrics.common.util.location.Location;
+
+/**
+ * This is the EnergyAuditor which verifies that our TileEntities conserve energy. Every tick each TileEntity checks that
+ * the change of it's stored energy equals what it received minus what was extracted from it, and that what it counted
+ * equals what was extracted. TileEntities that don't tick are checked whenever they are closed out instead, and energy
+ * passed thru counts as both received and extracted. Violations are logged with their location. It does nothing but
+ * check a flag while disabled.
+ *
+ * @author halvors
+ */
+public class EnergyAuditor {
+	// The value given as the counted energy of TileEntities that don't count energy.
+	public static final long NOT_COUNTED = Long.MIN_VALUE;
+
+	// The most violations logged during a single tick, the rest are only counted.
+	private static final int MAX_LOGGED_PER_TICK = 10;
+
+	private static boolean isEnabled;
+
+	// The violations found since the auditor was last reset.
+	private static long violations;
+
+	// The violations logged and suppressed during the current tick.
+	private static int loggedViolations;
+	private static int suppressedViolations;
+
+	public static boolean isEnabled() {
+		return isEnabled;
+	}
+
+	public static void setEnabled(boolean isEnabled) {
+		EnergyAuditor.isEnabled = isEnabled;
+	}
+
+	public static long getViolations() {
+		return violations;
+	}
+
+	public static void reset() {
+		violations = 0;
+	}
+
+	/**
+	 * Checks the energy a TileEntity moved since the last check against the change of it's stored and counted energy,
+	 * and starts a new period.
+	 * @param tileEntity the TileEntity that is checked.
+	 * @param ledger the energy moved in and out of the TileEntity since the last check.
+	 * @param stored the energy now stored.
+	 * @param counted the energy now counted, or NOT_COUNTED.
+	 */
+	public static void check(TileEntity tileEntity, Ledger ledger, int stored, long counted) {
+		long expectedStored = ledger.stored + ledger.received - ledger.extracted;
+
+		if (stored != expectedStored) {
+			report(tileEntity, "stored " + stored + " RF but expected " + expectedStored + " RF (was " + ledger.stored + " RF, received " + ledger.received + " RF, extracted " + ledger.extracted + " RF)");
+		}
+
+		if (counted != NOT_COUNTED && ledger.counted != NOT_COUNTED && counted - ledger.counted != ledger.extracted) {
+			report(tileEntity, "counted " + (counted - ledger.counted) + " RF but " + ledger.extracted + " RF was extracted");
+		}
+
+		ledger.reset(stored, counted);
+	}
+
+	/**
+	 * Called at the end of every server tick, logs how many violations were not logged during the tick.
+	 */
+	public static void onServerTick() {
+		if (suppressedViolations > 0) {
+			Electrometrics.getInstance().getLogger().warn("Energy audit: " + suppressedViolations + " more violations during this tick were not logged.");
+		}
+
+		loggedViolations = 0;
+		suppressedViolations = 0;
+	}
+
+	private static void report(TileEntity tileEntity, String message) {
+		violations++;
+
+		if (loggedViolations < MAX_LOGGED_PER_TICK) {
+			loggedViolations++;
+
+			Electrometrics.getInstance().getLogger().warn("Energy audit: " + tileEntity.getClass().getSimpleName() + " at " + new Location(tileEntity) + " " + message + ".");
+		} else {
+			suppressedViolations++;
+		}
+	}
+
+	/**
+	 * The energy moved in and out of a TileEntity since it was last checked.
+	 */
+	public static class Ledger {
+		private int stored;
+		private long counted;
+		private long received;
+		private long extracted;
+
+		public Ledger(int stored, long counted) {
+			reset(stored, counted);
+		}
+
+		public void addReceived(int amount) {
+			received += amount;
+		}
+
+		public void addExtracted(int amount) {
+			extracted += amount;
+		}
+
+		private void reset(int stored, long counted) {
+			this.stored = stored;
+			this.counted = counted;
+			this.received = 0;
+			this.extracted = 0;
+		}
+	}
+}
@@ -0,0 +1,95 @@
+package org.halvors.electrometrics.common.profiler;
+
+/**
+ * This is a histogram of durations in nanoseconds, with four linear sub-buckets for every power of two. That keeps the
+ * relative error of any percentile below 25% with a fixed, small number of buckets, and recording never allocates.
+ *
+ * @author halvors
+ */
+public class LatencyHistogram {
+	private static final int SUB_BUCKETS = 4;
+	private static final int SUB_BUCKET_BITS = 2;
+
+	private final long[] buckets = new long[SUB_BUCKETS * 64];
+	private long count;
+	private long total;
+	private long max;
+
+	public void record(long nanoseconds) {
+		if (nanoseconds < 0) {
+			nanoseconds = 0;
+		}
+
+		buckets[getIndex(nanoseconds)]++;
+		count++;
+		total += nanoseconds;
+		max = Math.max(max, nanoseconds);
+	}
+
+	public void reset() {
+		for (int i = 0; i < buckets.length; i++) {
+			buckets[i] = 0;
+		}
+
+		count = 0;
+		total = 0;
+		max = 0;
+	}
+
+	public long getCount() {
+		return count;
+	}
+
+	public long getTotal() {
+		return total;
+	}
+
+	public long getMax() {
+		return max;
+	}
+
+	public double getMean() {
+		return count > 0 ? total / (double) count : 0;
+	}
+
+	/**
+	 * Returns the upper bound of the bucket containing the given percentile.
+	 * @param percentile the percentile, between 0 and 100.
+	 */
+	public long getPercentile(double percentile) {
+		long rank = (long) Math.ceil(count * percentile / 100);
+		long seen = 0;
+
+		for (int i = 0; i < buckets.length; i++) {
+			seen += buckets[i];
+
+			if (seen >= rank && seen > 0) {
+				return Math.min(getUpperBound(i), max);
+			}
+		}
+
+		return 0;
+	}
+
+	private static int getIndex(long value) {
+		if (value < SUB_BUCKETS) {
+			return (int) value;
+		}
+
+		int bits = 63 - Long.numberOfLeadingZeros(value);
+		int subBucket = (int) (value >>> (bits - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+
+		return SUB_BUCKETS + (bits - SUB_BUCKET_BITS) * SUB_BUCKETS + subBucket;
+	}
+
+	private static long getUpperBound(int index) {
+		if (index < SUB_BUCKETS) {
+			return index;
+		}
+
+		int shift = (index - SUB_BUCKETS) / SUB_BUCKETS;
+		int subBucket = (index - SUB_BUCKETS) % SUB_BUCKETS;
+
+		return ((long) (SUB_BUCKETS + subBucket + 1) << shift) - 1;
+	}
+}
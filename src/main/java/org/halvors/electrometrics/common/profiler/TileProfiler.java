@@ -0,0 +1,171 @@
+package org.halvors.electrometrics.common.profiler;
+
+import org.halvors.electrometrics.Electrometrics;
+import org.halvors.electrometrics.common.ConfigurationManager.General;
+import org.halvors.electrometrics.common.base.MachineType;
+import org.halvors.electrometrics.common.tile.machine.TileEntityMachine;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This is the TileProfiler which measures the time spent in our TileEntities, per machine type and section. It does
+ * nothing but check a flag while disabled. Server-side and client-side work is kept in separate histograms, each only
+ * written by the thread of it's side, so that the network threads never write to them and samples are never mixed.
+ *
+ * @author halvors
+ */
+public class TileProfiler {
+	/**
+	 * The sections of work that are measured.
+	 */
+	public enum Section {
+		UPDATE,
+		DISTRIBUTE,
+		ENCODE,
+		DECODE
+	}
+
+	// The histograms of each side, indexed by machine type ordinal and then by section ordinal.
+	private static final LatencyHistogram[][] serverHistograms = createHistograms();
+	private static final LatencyHistogram[][] clientHistograms = createHistograms();
+
+	private static boolean isEnabled;
+
+	// Server and client ticks passed since the last log line.
+	private static int ticks;
+	private static int clientTicks;
+
+	// The threads the server and the client tick on, as seen at the end of their last tick.
+	private static volatile Thread serverThread;
+	private static volatile Thread clientThread;
+
+	public static boolean isEnabled() {
+		return isEnabled;
+	}
+
+	public static void setEnabled(boolean isEnabled) {
+		TileProfiler.isEnabled = isEnabled;
+		ticks = 0;
+		clientTicks = 0;
+	}
+
+	/**
+	 * Starts measuring a section.
+	 * @return the start time to pass to stop(), or 0 if profiling is disabled.
+	 */
+	public static long start() {
+		return isEnabled ? System.nanoTime() : 0;
+	}
+
+	/**
+	 * Stops measuring a section and records it for the machine type of a TileEntity.
+	 * @param tileEntity the TileEntity the work was done for.
+	 * @param section the section that was measured.
+	 * @param startTime the time returned by start().
+	 */
+	public static void stop(Object tileEntity, Section section, long startTime) {
+		if (startTime != 0 && tileEntity instanceof TileEntityMachine) {
+			TileEntityMachine tileEntityMachine = (TileEntityMachine) tileEntity;
+
+			if (tileEntityMachine.hasWorldObj()) {
+				boolean isClient = tileEntityMachine.getWorldObj().isRemote;
+
+				if (Thread.currentThread() == (isClient ? clientThread : serverThread)) {
+					long duration = System.nanoTime() - startTime;
+
+					(isClient ? clientHistograms : serverHistograms)[tileEntityMachine.getMachineType().ordinal()][section.ordinal()].record(duration);
+				}
+			}
+		}
+	}
+
+	public static void reset() {
+		reset(serverHistograms);
+		reset(clientHistograms);
+	}
+
+	/**
+	 * Returns a line for every machine type and section that has been measured, client-side lines are only available in
+	 * single player.
+	 */
+	public static List<String> getReport() {
+		List<String> lines = new ArrayList<>();
+		addReport(serverHistograms, "", lines);
+		addReport(clientHistograms, " (client)", lines);
+
+		return lines;
+	}
+
+	/**
+	 * Called at the end of every server tick, logs the report and starts over once the log interval has passed.
+	 */
+	public static void onServerTick() {
+		serverThread = Thread.currentThread();
+
+		if (isEnabled && General.profilerLogInterval > 0 && ++ticks >= General.profilerLogInterval * 20) {
+			ticks = 0;
+
+			log(serverHistograms, "");
+		}
+	}
+
+	/**
+	 * Called at the end of every client tick, logs the client-side report and starts over once the log interval has
+	 * passed.
+	 */
+	public static void onClientTick() {
+		clientThread = Thread.currentThread();
+
+		if (isEnabled && General.profilerLogInterval > 0 && ++clientTicks >= General.profilerLogInterval * 20) {
+			clientTicks = 0;
+
+			log(clientHistograms, " (client)");
+		}
+	}
+
+	private static LatencyHistogram[][] createHistograms() {
+		LatencyHistogram[][] histograms = new LatencyHistogram[MachineType.values().length][Section.values().length];
+
+		for (LatencyHistogram[] sectionHistograms : histograms) {
+			for (int i = 0; i < sectionHistograms.length; i++) {
+				sectionHistograms[i] = new LatencyHistogram();
+			}
+		}
+
+		return histograms;
+	}
+
+	private static void reset(LatencyHistogram[][] histograms) {
+		for (LatencyHistogram[] sectionHistograms : histograms) {
+			for (LatencyHistogram histogram : sectionHistograms) {
+				histogram.reset();
+			}
+		}
+	}
+
+	private static void log(LatencyHistogram[][] histograms, String suffix) {
+		List<String> lines = new ArrayList<>();
+		addReport(histograms, suffix, lines);
+
+		for (String line : lines) {
+			Electrometrics.getInstance().getLogger().info("Profiler: " + line);
+		}
+
+		reset(histograms);
+	}
+
+	private static void addReport(LatencyHistogram[][] histograms, String suffix, List<String> lines) {
+		for (MachineType machineType : MachineType.values()) {
+			for (Section section : Section.values()) {
+				LatencyHistogram histogram = histograms[machineType.ordinal()][section.ordinal()];
+
+				if (histogram.getCount() > 0) {
+					lines.add(String.format("%s %s%s: %d samples, %.1f ms total, mean %.2f us, p50 %.2f us, p99 %.2f us, max %.2f us",
+							machineType.getUnlocalizedName(), section.name().toLowerCase(), suffix, histogram.getCount(), histogram.getTotal() / 1e6,
+							histogram.getMean() / 1e3, histogram.getPercentile(50) / 1e3, histogram.getPercentile(99) / 1e3, histogram.getMax() / 1e3));
+				}
+			}
+		}
+	}
+}
@@ -1,37 +1,38 @@
 package org.halvors.electrometrics.common.tile;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
 import net.minecraft.nbt.NBTTagCompound;
-import org.halvors.electrometrics.common.base.tile.ITileNetworkable;
 import org.halvors.electrometrics.common.base.tile.ITileRotatable;
-import org.halvors.electrometrics.common.network.NetworkHandler;
-import org.halvors.electrometrics.common.network.packet.PacketRequestData;
-import org.halvors.electrometrics.common.network.packet.PacketTileEntity;
+import org.halvors.electrometrics.common.base.tile.ITileSynchronizable;
+import org.halvors.electrometrics.common.network.PacketReader;
+import org.halvors.electrometrics.common.network.PacketWriter;
+import org.halvors.electrometrics.common.network.TileSubscriptionManager;
+import org.halvors.electrometrics.common.network.TileSyncManager;
 
 import java.util.List;
 
-public class TileEntityRotatable extends TileEntity implements ITileNetworkable, ITileRotatable {
+public class TileEntityRotatable extends TileEntity implements ITileSynchronizable, ITileRotatable {
+	// Synchronized fields.
+	protected static final int FIELD_FACING = 1;
+
 	// The direction this TileEntity's block is facing.
 	protected int facing;
 
+	// The fields that have changed since the last synchronization.
+	private int dirtyFields;
+
 	protected TileEntityRotatable(String inventoryName) {
 		super(inventoryName);
 	}
 
-	@Override
-	public void validate() {
-		super.validate();
-
-		if (worldObj.isRemote) {
-			NetworkHandler.sendToServer(new PacketRequestData(this));
-		}
-	}
-
 	@Override
 	public void readFromNBT(NBTTagCompound nbtTagCompound) {
 		super.readFromNBT(nbtTagCompound);
 
 		facing = nbtTagCompound.getInteger("facing");
+
+		onFacingChanged();
 	}
 
 	@Override
@@ -43,22 +44,70 @@ public class TileEntityRotatable extends TileEntity implements ITileNetworkable,
 
 	@Override
 	public void handlePacketData(ByteBuf dataStream) throws Exception {
-		facing = dataStream.readInt();
-
-		// Re-render the block.
-		worldObj.markBlockForRenderUpdate(xCoord, yCoord, zCoord);
-
-		// Update potentially connected redstone blocks.
-		worldObj.notifyBlocksOfNeighborChange(xCoord, yCoord, zCoord, getBlockType());
+		readPacketData(new PacketReader(dataStream), ALL_FIELDS);
 	}
 
 	@Override
 	public List<Object> getPacketData(List<Object> objects) {
-		objects.add(facing);
+		ByteBuf dataStream = Unpooled.buffer();
+		writePacketData(new PacketWriter(dataStream), ALL_FIELDS);
+
+		byte[] data = new byte[dataStream.readableBytes()];
+		dataStream.readBytes(data);
+		objects.add(data);
 
 		return objects;
 	}
 
+	@Override
+	public void readPacketData(PacketReader reader, int fields) throws Exception {
+		if ((fields & FIELD_FACING) != 0) {
+			facing = reader.readVarInt();
+
+			onFacingChanged();
+		}
+
+		if (worldObj.isRemote) {
+			// Re-render the block.
+			worldObj.markBlockForRenderUpdate(xCoord, yCoord, zCoord);
+
+			// Update potentially connected redstone blocks.
+			worldObj.notifyBlocksOfNeighborChange(xCoord, yCoord, zCoord, getBlockType());
+		}
+	}
+
+	@Override
+	public void writePacketData(PacketWriter writer, int fields) {
+		if ((fields & FIELD_FACING) != 0) {
+			writer.writeVarInt(facing);
+		}
+	}
+
+	@Override
+	public int getClientFields() {
+		return 0;
+	}
+
+	@Override
+	public int getDirtyFields() {
+		return dirtyFields;
+	}
+
+	@Override
+	public void clearDirtyFields() {
+		dirtyFields = 0;
+	}
+
+	@Override
+	public void markForSync(int fields) {
+		if (worldObj != null && !worldObj.isRemote) {
+			dirtyFields |= fields;
+
+			TileSyncManager.enqueue(this);
+			TileSubscriptionManager.onChanged(this, fields);
+		}
+	}
+
 	@Override
 	public boolean canSetFacing(int facing) {
 		return true;
@@ -73,10 +122,17 @@ public class TileEntityRotatable extends TileEntity implements ITileNetworkable,
 	public void setFacing(int facing) {
 		if (canSetFacing(facing)) {
 			this.facing = facing;
-		}
 
-		if (!worldObj.isRemote) {
-			NetworkHandler.sendToReceivers(new PacketTileEntity(this), this);
+			onFacingChanged();
 		}
+
+		markForSync(FIELD_FACING);
+	}
+
+	/**
+	 * Called whenever the facing of this has changed, used to update anything derived from it.
+	 */
+	protected void onFacingChanged() {
+
 	}
-}
\ No newline at end of file
+}
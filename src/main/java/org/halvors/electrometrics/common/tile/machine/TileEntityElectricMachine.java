@@ -1,8 +1,6 @@
 package org.halvors.electrometrics.common.tile.machine;
 
 import org.halvors.electrometrics.common.base.MachineType;
-import org.halvors.electrometrics.common.network.NetworkHandler;
-import org.halvors.electrometrics.common.network.packet.PacketTileEntity;
 
 /**
  * This is a basic TileEntity that is meant to be extended by other TileEntities.
@@ -19,8 +17,8 @@ public class TileEntityElectricMachine extends TileEntityMachine {
 	}
 
 	@Override
-	public void updateEntity() {
-		super.updateEntity();
+	protected void update() {
+		super.update();
 
 		// Update wasPowered to the current isPowered.
 		wasPowered = isPowered;
@@ -28,13 +26,8 @@ public class TileEntityElectricMachine extends TileEntityMachine {
 
 	public void onNeighborChange() {
 		if (!worldObj.isRemote) {
-			boolean redstonePower = worldObj.isBlockIndirectlyGettingPowered(xCoord, yCoord, zCoord);
-
-			if (isPowered != redstonePower) {
-				isPowered = redstonePower;
-
-				NetworkHandler.sendToReceivers(new PacketTileEntity(this), this);
-			}
+			// The redstone state is only used server-side, so it's not synchronized.
+			isPowered = worldObj.isBlockIndirectlyGettingPowered(xCoord, yCoord, zCoord);
 		}
 	}
 }
@@ -1,12 +1,9 @@
 package org.halvors.electrometrics.common.tile.machine;
 
-import cofh.api.energy.IEnergyReceiver;
-import cpw.mods.fml.common.network.ByteBufUtils;
-import io.netty.buffer.ByteBuf;
 import net.minecraft.entity.player.EntityPlayer;
 import net.minecraft.nbt.NBTTagCompound;
-import net.minecraft.tileentity.TileEntity;
 import net.minecraftforge.common.util.ForgeDirection;
+import org.halvors.electrometrics.common.MeterRegistry;
 import org.halvors.electrometrics.common.base.IElectricTier;
 import org.halvors.electrometrics.common.base.MachineType;
 import org.halvors.electrometrics.common.base.RedstoneControlType;
@@ -15,14 +12,15 @@ import org.halvors.electrometrics.common.base.tile.ITileActiveState;
 import org.halvors.electrometrics.common.base.tile.ITileNetworkable;
 import org.halvors.electrometrics.common.base.tile.ITileOwnable;
 import org.halvors.electrometrics.common.base.tile.ITileRedstoneControl;
-import org.halvors.electrometrics.common.network.NetworkHandler;
-import org.halvors.electrometrics.common.network.packet.PacketRequestData;
-import org.halvors.electrometrics.common.network.packet.PacketTileEntity;
-import org.halvors.electrometrics.common.util.MachineUtils;
+import org.halvors.electrometrics.common.history.MeterHistory;
+import org.halvors.electrometrics.common.history.OwnerUsage;
+import org.halvors.electrometrics.common.history.WorldClock;
+import org.halvors.electrometrics.common.network.PacketReader;
+import org.halvors.electrometrics.common.network.PacketWriter;
 import org.halvors.electrometrics.common.util.PlayerUtils;
+import org.halvors.electrometrics.common.util.energy.EnergyCounter;
+import org.halvors.electrometrics.common.util.energy.EnergyThroughput;
 
-import java.util.EnumSet;
-import java.util.List;
 import java.util.UUID;
 
 /**
@@ -32,12 +30,26 @@ import java.util.UUID;
  * @author halvors
  */
 public class TileEntityElectricityMeter extends TileEntityElectricityProvider implements ITileNetworkable, ITileActiveState, IElectricTier, ITileOwnable, ITileRedstoneControl {
+	// The most ticks of metering done at once when catching up, after a day all windows of the throughput are empty.
+	private static final int MAX_CATCH_UP_TICKS = 24 * 60 * 60 * 20;
+
+	// Synchronized fields.
+	private static final int FIELD_ACTIVE = 1 << 2;
+	private static final int FIELD_OWNER = 1 << 3;
+	private static final int FIELD_REDSTONE_CONTROL_TYPE = 1 << 4;
+	private static final int FIELD_ELECTRIC_TIER = 1 << 5;
+	private static final int FIELD_ELECTRICITY_COUNT = 1 << 6;
+	private static final int FIELD_THROUGHPUT = 1 << 7;
+
 	// Whether or not this TileEntity's block is in it's active state.
 	private boolean isActive;
 
 	// The UUID of the player owning this.
 	private UUID ownerUUID;
 
+	// The usage account of the player owning this, looked up when first needed.
+	private OwnerUsage.Account ownerAccount;
+
 	// The name of the player owning this.
 	private String ownerName;
 
@@ -48,7 +60,24 @@ public class TileEntityElectricityMeter extends TileEntityElectricityProvider im
 	private Tier.Electric electricTier;
 
 	// The amount of energy that has passed thru.
-	private double electricityCount;
+	private final EnergyCounter electricityCount = new EnergyCounter();
+
+	// The history of energy that has passed thru, only kept server-side.
+	private final EnergyThroughput throughput = new EnergyThroughput();
+
+	// The stable id of this meter, which is also it's handle in MeterHistory. 0 until it has been given one.
+	private int meterId;
+
+	// The world time the metering was last done at, 0 if it never was.
+	private long meteringTime;
+
+	// Whether or not energy was counted since this was last closed out, only used when this doesn't tick.
+	private boolean hasCountedEnergy;
+
+	// The current, average and peak energy per tick, as last synchronized.
+	private double currentThroughput;
+	private double averageThroughput;
+	private long peakThroughput;
 
 	public TileEntityElectricityMeter() {
 		this(MachineType.BASIC_ELECTRICITY_METER, Tier.Electric.BASIC);
@@ -60,12 +89,44 @@ public class TileEntityElectricityMeter extends TileEntityElectricityProvider im
 		this.electricTier = electricTier;
 	}
 
+	@Override
+	protected void update() {
+		super.update();
+
+		if (!worldObj.isRemote) {
+			updateMetering();
+
+			// Nothing passes thru while sleeping.
+			if (isSleeping()) {
+				setActive(false);
+			}
+		}
+	}
+
 	@Override
 	public void validate() {
 		super.validate();
 
-		if (worldObj.isRemote) {
-			NetworkHandler.sendToServer(new PacketRequestData(this));
+		if (worldObj != null && !worldObj.isRemote) {
+			MeterRegistry.register(this);
+		}
+	}
+
+	@Override
+	public void invalidate() {
+		super.invalidate();
+
+		if (worldObj != null && !worldObj.isRemote) {
+			MeterRegistry.unregister(this);
+		}
+	}
+
+	@Override
+	public void onChunkUnload() {
+		super.onChunkUnload();
+
+		if (!worldObj.isRemote) {
+			MeterRegistry.unregister(this);
 		}
 	}
 
@@ -77,6 +138,7 @@ public class TileEntityElectricityMeter extends TileEntityElectricityProvider im
 
 		if (nbtTagCompound.hasKey("ownerUUIDM") && nbtTagCompound.hasKey("ownerUUIDL")) {
 			ownerUUID = new UUID(nbtTagCompound.getLong("ownerUUIDM"), nbtTagCompound.getLong("ownerUUIDL"));
+			ownerAccount = null;
 		}
 
 		if (nbtTagCompound.hasKey("ownerName")) {
@@ -85,7 +147,8 @@ public class TileEntityElectricityMeter extends TileEntityElectricityProvider im
 
 		redstoneControlType = RedstoneControlType.values()[nbtTagCompound.getInteger("redstoneControlType")];
 		electricTier = Tier.Electric.values()[nbtTagCompound.getInteger("electricTier")];
-		electricityCount = nbtTagCompound.getDouble("electricityCount");
+		electricityCount.readFromNBT(nbtTagCompound, "electricityCount");
+		meterId = nbtTagCompound.getInteger("meterId");
 	}
 
 	@Override
@@ -105,100 +168,158 @@ public class TileEntityElectricityMeter extends TileEntityElectricityProvider im
 
 		nbtTagCompound.setInteger("redstoneControlType", redstoneControlType.ordinal());
 		nbtTagCompound.setInteger("electricTier", electricTier.ordinal());
-		nbtTagCompound.setDouble("electricityCount", electricityCount);
+		electricityCount.writeToNBT(nbtTagCompound, "electricityCount");
+
+		if (meterId != 0) {
+			nbtTagCompound.setInteger("meterId", meterId);
+		}
 	}
 
 	@Override
-	public void handlePacketData(ByteBuf dataStream) throws Exception {
-		super.handlePacketData(dataStream);
+	public void readPacketData(PacketReader reader, int fields) throws Exception {
+		super.readPacketData(reader, fields);
+
+		if ((fields & FIELD_ACTIVE) != 0) {
+			isActive = reader.readBoolean();
+		}
 
-		isActive = dataStream.readBoolean();
+		if ((fields & FIELD_OWNER) != 0) {
+			long ownerUUIDMostSignificantBits = reader.readLong();
+			long ownerUUIDLeastSignificantBits = reader.readLong();
+
+			if (ownerUUIDMostSignificantBits != 0 && ownerUUIDLeastSignificantBits != 0) {
+				ownerUUID = new UUID(ownerUUIDMostSignificantBits, ownerUUIDLeastSignificantBits);
+			}
 
-		long ownerUUIDMostSignificantBits = dataStream.readLong();
-		long ownerUUIDLeastSignificantBits = dataStream.readLong();
+			String ownerNameText = reader.readInternedString();
 
-		if (ownerUUIDMostSignificantBits != 0 && ownerUUIDLeastSignificantBits != 0) {
-			ownerUUID = new UUID(ownerUUIDMostSignificantBits, ownerUUIDLeastSignificantBits);
+			if (!ownerNameText.isEmpty()) {
+				ownerName = ownerNameText;
+			}
 		}
 
-		String ownerNameText = ByteBufUtils.readUTF8String(dataStream);
+		if ((fields & FIELD_REDSTONE_CONTROL_TYPE) != 0) {
+			RedstoneControlType redstoneControlType = RedstoneControlType.values()[reader.readVarInt()];
 
-		if (!ownerNameText.isEmpty()) {
-			ownerName = ownerNameText;
+			if (worldObj.isRemote) {
+				this.redstoneControlType = redstoneControlType;
+			} else {
+				setControlType(redstoneControlType);
+			}
 		}
 
-		redstoneControlType = RedstoneControlType.values()[dataStream.readInt()];
-		electricTier = Tier.Electric.values()[dataStream.readInt()];
-		electricityCount = dataStream.readDouble();
+		if ((fields & FIELD_ELECTRIC_TIER) != 0) {
+			electricTier = Tier.Electric.values()[reader.readVarInt()];
+		}
 
-		// Re-render the block.
-		worldObj.markBlockForRenderUpdate(xCoord, yCoord, zCoord);
+		if ((fields & FIELD_ELECTRICITY_COUNT) != 0) {
+			if (worldObj.isRemote) {
+				electricityCount.readPacketData(reader);
+			} else {
+				EnergyCounter electricityCount = new EnergyCounter();
+				electricityCount.readPacketData(reader);
 
-		// Update potentially connected redstone blocks.
-		worldObj.notifyBlocksOfNeighborChange(xCoord, yCoord, zCoord, getBlockType());
+				// Clients can only reset the counter.
+				if (electricityCount.isZero()) {
+					setElectricityCount(electricityCount);
+				}
+			}
+		}
+
+		if ((fields & FIELD_THROUGHPUT) != 0) {
+			currentThroughput = reader.readDouble();
+			averageThroughput = reader.readDouble();
+			peakThroughput = reader.readVarLong();
+		}
+
+		if (worldObj.isRemote) {
+			// Re-render the block.
+			worldObj.markBlockForRenderUpdate(xCoord, yCoord, zCoord);
+
+			// Update potentially connected redstone blocks.
+			worldObj.notifyBlocksOfNeighborChange(xCoord, yCoord, zCoord, getBlockType());
+		}
 	}
 
 	@Override
-	public List<Object> getPacketData(List<Object> objects) {
-		super.getPacketData(objects);
+	public void writePacketData(PacketWriter writer, int fields) {
+		super.writePacketData(writer, fields);
+
+		if ((fields & FIELD_ACTIVE) != 0) {
+			writer.writeBoolean(isActive);
+		}
+
+		if ((fields & FIELD_OWNER) != 0) {
+			writer.writeLong(ownerUUID != null ? ownerUUID.getMostSignificantBits() : 0);
+			writer.writeLong(ownerUUID != null ? ownerUUID.getLeastSignificantBits() : 0);
+			writer.writeString(ownerName != null ? ownerName : "");
+		}
+
+		if ((fields & FIELD_REDSTONE_CONTROL_TYPE) != 0) {
+			writer.writeVarInt(redstoneControlType.ordinal());
+		}
 
-		objects.add(isActive);
-		objects.add(ownerUUID != null ? ownerUUID.getMostSignificantBits() : 0);
-		objects.add(ownerUUID != null ? ownerUUID.getLeastSignificantBits() : 0);
-		objects.add(ownerName != null ? ownerName : "");
-		objects.add(redstoneControlType.ordinal());
-		objects.add(electricTier.ordinal());
-		objects.add(electricityCount);
+		if ((fields & FIELD_ELECTRIC_TIER) != 0) {
+			writer.writeVarInt(electricTier.ordinal());
+		}
+
+		if ((fields & FIELD_ELECTRICITY_COUNT) != 0) {
+			electricityCount.writePacketData(writer);
+		}
 
-		return objects;
+		if ((fields & FIELD_THROUGHPUT) != 0) {
+			writer.writeDouble(currentThroughput);
+			writer.writeDouble(averageThroughput);
+			writer.writeVarLong(peakThroughput);
+		}
+	}
+
+	@Override
+	public int getClientFields() {
+		return FIELD_REDSTONE_CONTROL_TYPE | FIELD_ELECTRICITY_COUNT;
 	}
 
 	@Override
 	public int extractEnergy(ForgeDirection from, int maxExtract, boolean simulate) {
-		if (getExtractingDirections().contains(from)) {
-			// Add the amount of energy we're extracting to the counter, and set the block as active.
-			if (!simulate) {// && storage.extractEnergy(maxExtract, true) > 0) {
-                setActive(true);
-				electricityCount += maxExtract;
-			}
+		int energyExtracted = super.extractEnergy(from, maxExtract, simulate);
+
+		// Add the amount of energy actually extracted to the counter.
+		if (!simulate && energyExtracted > 0) {
+			countEnergy(energyExtracted);
 		}
 
-		return super.extractEnergy(from, maxExtract, simulate);
+		return energyExtracted;
 	}
 
-    @Override
-    protected EnumSet<ForgeDirection> getReceivingDirections() {
-        EnumSet<ForgeDirection> directions = EnumSet.allOf(ForgeDirection.class);
-        directions.removeAll(getExtractingDirections());
-        directions.remove(ForgeDirection.UNKNOWN);
+	@Override
+	protected void onEnergyPassedThru(int energy) {
+		countEnergy(energy);
+	}
 
-        return directions;
-    }
+	@Override
+	protected long getCountedEnergy() {
+		return electricityCount.getLow();
+	}
 
 	@Override
-	protected EnumSet<ForgeDirection> getExtractingDirections() {
-		return EnumSet.of(ForgeDirection.getOrientation(facing).getRotation(ForgeDirection.UP));
+	protected int getReceivingSides() {
+		return ALL_SIDES & ~getExtractingSides();
 	}
 
 	@Override
-	protected void distributeEnergy() {
-		for (ForgeDirection direction : getExtractingDirections()) {
-			TileEntity tileEntity = worldObj.getTileEntity(xCoord + direction.offsetX, yCoord + direction.offsetY, zCoord + direction.offsetZ);
+	protected int getExtractingSides() {
+		return 1 << ForgeDirection.getOrientation(facing).getRotation(ForgeDirection.UP).ordinal();
+	}
 
-			if (tileEntity != null) {
-				if (tileEntity instanceof IEnergyReceiver) {
-					int actualEnergyAmount = extractEnergy(direction, getExtract(), true);
+	@Override
+	protected int distributeEnergy() {
+		int energyDistributed = super.distributeEnergy();
 
-					if (!MachineUtils.canFunction(this) || actualEnergyAmount <= 0) {
-						setActive(false);
-					}
-				}
-			} else {
-				setActive(false);
-			}
+		if (energyDistributed == 0) {
+			setActive(false);
 		}
 
-		super.distributeEnergy();
+		return energyDistributed;
 	}
 
 	@Override
@@ -208,10 +329,10 @@ public class TileEntityElectricityMeter extends TileEntityElectricityProvider im
 
 	@Override
 	public void setActive(boolean isActive) {
-        this.isActive = isActive;
+		if (this.isActive != isActive) {
+			this.isActive = isActive;
 
-		if (!worldObj.isRemote) {
-			NetworkHandler.sendToReceivers(new PacketTileEntity(this), this);
+			markForSync(FIELD_ACTIVE);
 		}
 	}
 
@@ -223,6 +344,8 @@ public class TileEntityElectricityMeter extends TileEntityElectricityProvider im
 	@Override
 	public void setElectricTier(Tier.Electric electricTier) {
 		this.electricTier = electricTier;
+
+		markForSync(FIELD_ELECTRIC_TIER);
 	}
 
 	@Override
@@ -240,6 +363,13 @@ public class TileEntityElectricityMeter extends TileEntityElectricityProvider im
 		return PlayerUtils.getPlayerFromUUID(ownerUUID);
 	}
 
+	/**
+	 * Returns the UUID of the player owning this, or null if it has no owner.
+	 */
+	public UUID getOwnerUUID() {
+		return ownerUUID;
+	}
+
 	@Override
 	public String getOwnerName() {
 		return ownerName;
@@ -247,8 +377,15 @@ public class TileEntityElectricityMeter extends TileEntityElectricityProvider im
 
 	@Override
 	public void setOwner(EntityPlayer player) {
+		UUID previousOwnerUUID = ownerUUID;
+
 		this.ownerUUID = player.getPersistentID();
 		this.ownerName = player.getDisplayName();
+		this.ownerAccount = null;
+
+		MeterRegistry.onOwnerChanged(this, previousOwnerUUID);
+
+		markForSync(FIELD_OWNER);
 	}
 
 	@Override
@@ -259,6 +396,9 @@ public class TileEntityElectricityMeter extends TileEntityElectricityProvider im
 	@Override
 	public void setControlType(RedstoneControlType redstoneControlType) {
 		this.redstoneControlType = redstoneControlType;
+
+		markForSync(FIELD_REDSTONE_CONTROL_TYPE);
+		markDirty();
 	}
 
 	@Override
@@ -284,14 +424,171 @@ public class TileEntityElectricityMeter extends TileEntityElectricityProvider im
 	/**
 	 * Returns the amount of energy that this block has totally received.
 	 */
-	public double getElectricityCount() {
+	public EnergyCounter getElectricityCount() {
 		return electricityCount;
 	}
 
 	/**
 	 * Sets the amount of energy that this block has totally received.
 	 */
-	public void setElectricityCount(double electricityCount) {
-		this.electricityCount = electricityCount;
+	public void setElectricityCount(EnergyCounter electricityCount) {
+		this.electricityCount.set(electricityCount);
+		ledger = null;
+
+		markForSync(FIELD_ELECTRICITY_COUNT);
+		markDirty();
+	}
+
+	/**
+	 * Returns the average energy per tick that passed thru during the last second.
+	 */
+	public double getCurrentThroughput() {
+		return currentThroughput;
+	}
+
+	/**
+	 * Returns the average energy per tick that passed thru during the last minute.
+	 */
+	public double getAverageThroughput() {
+		return averageThroughput;
+	}
+
+	/**
+	 * Returns the most energy that passed thru in a single tick during the last minute.
+	 */
+	public long getPeakThroughput() {
+		return peakThroughput;
+	}
+
+	/**
+	 * Returns the complete history of energy that has passed thru, only available server-side.
+	 */
+	public EnergyThroughput getThroughput() {
+		return throughput;
+	}
+
+	/**
+	 * Catches up on what a meter that doesn't tick would have done every tick, called regularly by the MeterRegistry so
+	 * that the throughput, history and active state stay current while nothing passes thru. It also audits the energy
+	 * pulled from or passed thru this since it was last closed out.
+	 */
+	public void closeOut() {
+		if (!canUpdate()) {
+			updateMetering();
+
+			if (!hasCountedEnergy) {
+				setActive(false);
+			}
+
+			hasCountedEnergy = false;
+
+			audit();
+		}
+	}
+
+	/**
+	 * Returns the stable id of this meter, which is also it's handle in MeterHistory. 0 until it has been given one.
+	 */
+	public int getMeterId() {
+		return meterId;
+	}
+
+	/**
+	 * Makes this meter get a new id the next time it meters, used when it's id turns out to belong to another meter.
+	 * It's saved once the new id is given.
+	 */
+	public void clearMeterId() {
+		meterId = 0;
+	}
+
+	/**
+	 * Adds energy that passed thru to the counter and the history, and sets the block as active.
+	 * @param energy the energy that passed thru.
+	 */
+	private void countEnergy(int energy) {
+		// Meters that don't tick have to catch up before counting, so that the energy ends up in the current tick.
+		if (!worldObj.isRemote) {
+			updateMetering();
+		}
+
+		setActive(true);
+		hasCountedEnergy = true;
+		electricityCount.add(energy);
+		throughput.add(energy);
+
+		if (ownerUUID != null) {
+			if (ownerAccount == null) {
+				ownerAccount = OwnerUsage.getAccount(ownerUUID);
+			}
+
+			ownerAccount.add(energy);
+		}
+
+		markForSync(FIELD_ELECTRICITY_COUNT);
+	}
+
+	/**
+	 * Does the metering of every tick since it was last done. Meters that tick do it once every tick, meters that don't
+	 * tick catch up whenever energy passes thru and when they are closed out.
+	 */
+	private void updateMetering() {
+		long worldTime = worldObj.getTotalWorldTime();
+		long ticks = meteringTime != 0 ? Math.max(0, Math.min(worldTime - meteringTime, MAX_CATCH_UP_TICKS)) : 1;
+		meteringTime = worldTime;
+
+		if (ticks > 0 && meterId == 0) {
+			meterId = MeterHistory.allocate(this);
+
+			if (meterId != 0) {
+				markDirty();
+				MeterRegistry.onIdAssigned(this);
+			}
+		}
+
+		// Only the minute in progress can have energy, the minutes after it are all skipped at once.
+		long minuteTicks = throughput.getTicksLeftInMinute();
+		boolean hasCompletedSecond;
+
+		if (ticks >= minuteTicks) {
+			throughput.advance(minuteTicks);
+			updateHistory(worldTime - (ticks - minuteTicks));
+			throughput.advance(ticks - minuteTicks);
+			hasCompletedSecond = true;
+		} else {
+			hasCompletedSecond = throughput.advance(ticks);
+		}
+
+		if (hasCompletedSecond) {
+			updateThroughput();
+		}
+	}
+
+	/**
+	 * Appends the last minute to the history, skipping minutes where nothing passed thru.
+	 * @param minuteTime the world time the minute ended at.
+	 */
+	private void updateHistory(long minuteTime) {
+		long energy = throughput.getLastMinuteEnergy();
+
+		if (energy > 0 && meterId != 0) {
+			MeterHistory.append(meterId, WorldClock.getTime(minuteTime), energy, throughput.getLastMinutePeak());
+		}
+	}
+
+	/**
+	 * Takes the throughput values from the history once a second, and synchronizes them if they changed.
+	 */
+	private void updateThroughput() {
+		double currentThroughput = throughput.getCurrent();
+		double averageThroughput = throughput.getAverage(EnergyThroughput.Window.MINUTE);
+		long peakThroughput = throughput.getPeak(EnergyThroughput.Window.MINUTE);
+
+		if (this.currentThroughput != currentThroughput || this.averageThroughput != averageThroughput || this.peakThroughput != peakThroughput) {
+			this.currentThroughput = currentThroughput;
+			this.averageThroughput = averageThroughput;
+			this.peakThroughput = peakThroughput;
+
+			markForSync(FIELD_THROUGHPUT);
+		}
 	}
 }
@@ -4,74 +4,288 @@ import cofh.api.energy.IEnergyProvider;
 import cofh.api.energy.IEnergyReceiver;
 import net.minecraft.tileentity.TileEntity;
 import net.minecraftforge.common.util.ForgeDirection;
+import org.halvors.electrometrics.common.ConfigurationManager.Machine;
 import org.halvors.electrometrics.common.base.MachineType;
+import org.halvors.electrometrics.common.base.TransferMode;
+import org.halvors.electrometrics.common.profiler.TileProfiler;
+import org.halvors.electrometrics.common.profiler.TileProfiler.Section;
 import org.halvors.electrometrics.common.util.MachineUtils;
 
-import java.util.EnumSet;
-
 /**
  * When extended, this makes a TileEntity able to provide electricity.
  *
  * @author halvors
  */
 public class TileEntityElectricityProvider extends TileEntityElectricityReceiver implements IEnergyProvider {
+	// The mask of sides this can extract energy to, indexed by ForgeDirection ordinal.
+	private int extractingSideMask;
+
+	// The IEnergyReceiver on every side of this, or null if there is none.
+	private final IEnergyReceiver[] adjacentReceivers = new IEnergyReceiver[ForgeDirection.VALID_DIRECTIONS.length];
+
+	// Whether or not adjacentReceivers have to be looked up again.
+	private boolean isAdjacentReceiversDirty = true;
+
+	// Whether or not this has nothing to distribute, and skips distributing until woken up.
+	private boolean isSleeping;
+
+	// Whether or not energy is being passed thru this, guards against meters passing energy in a loop.
+	private boolean isPassingEnergyThru;
+
 	protected TileEntityElectricityProvider(MachineType machineType, int maxEnergy) {
 		super(machineType, maxEnergy);
+
+		extractingSideMask = getExtractingSides();
 	}
 
 	protected TileEntityElectricityProvider(MachineType machineType, int maxEnergy, int maxTransfer) {
 		super(machineType, maxEnergy, maxTransfer);
+
+		extractingSideMask = getExtractingSides();
 	}
 
 	protected TileEntityElectricityProvider(MachineType machineType, int maxEnergy, int maxReceive, int maxExtract) {
 		super(machineType, maxEnergy, maxReceive, maxExtract);
+
+		extractingSideMask = getExtractingSides();
+	}
+
+	@Override
+	public boolean canUpdate() {
+		// Only checked when this is added to the world, so changing the TransferMode requires a reload.
+		return getTransferMode() == TransferMode.PUSH;
 	}
 
 	@Override
-	public void updateEntity() {
-		super.updateEntity();
+	protected void update() {
+		super.update();
+
+		if (!worldObj.isRemote && !isSleeping && getTransferMode() == TransferMode.PUSH) {
+			long startTime = TileProfiler.start();
 
-		if (!worldObj.isRemote) {
 			distributeEnergy();
+
+			TileProfiler.stop(this, Section.DISTRIBUTE, startTime);
+
+			// Stop distributing while there is no energy to distribute, or nowhere to distribute it.
+			isSleeping = storage.getEnergyStored() == 0 || !hasAdjacentReceiver();
+		}
+	}
+
+	@Override
+	protected void onFacingChanged() {
+		super.onFacingChanged();
+
+		extractingSideMask = getExtractingSides();
+
+		// Only the sides energy can go to are looked up, so they have to be looked up again.
+		invalidateAdjacentReceivers();
+	}
+
+	@Override
+	public int receiveEnergy(ForgeDirection from, int maxReceive, boolean simulate) {
+		if (getTransferMode() == TransferMode.PASS_THROUGH) {
+			return canReceiveFrom(from) ? passEnergyThru(maxReceive, simulate) : 0;
+		}
+
+		int energyReceived = super.receiveEnergy(from, maxReceive, simulate);
+
+		if (!simulate && energyReceived > 0) {
+			isSleeping = false;
 		}
+
+		return energyReceived;
+	}
+
+	@Override
+	public void onChunkUnload() {
+		super.onChunkUnload();
+
+		invalidateAdjacentReceivers();
 	}
 
 	@Override
 	public boolean canConnectEnergy(ForgeDirection from) {
-		return getReceivingDirections().contains(from) || getExtractingDirections().contains(from);
+		return canReceiveFrom(from) || canExtractTo(from);
 	}
 
 	@Override
 	public int extractEnergy(ForgeDirection from, int maxExtract, boolean simulate) {
-		if (getExtractingDirections().contains(from)) {
-			return storage.extractEnergy(maxExtract, simulate);
+		// When not pushing, the redstone control applies to extracting rather than to distributing.
+		if (canExtractTo(from) && (getTransferMode() == TransferMode.PUSH || MachineUtils.canFunction(this))) {
+			int energyExtracted = storage.extractEnergy(maxExtract, simulate);
+
+			if (!simulate && energyExtracted > 0) {
+				markForSync(FIELD_ENERGY_STORED);
+
+				if (ledger != null) {
+					ledger.addExtracted(energyExtracted);
+				}
+			}
+
+			return energyExtracted;
 		}
 
 		return 0;
 	}
 
-	protected EnumSet<ForgeDirection> getExtractingDirections() {
-		return EnumSet.noneOf(ForgeDirection.class);
+	/**
+	 * Returns the TransferMode this uses to pass energy on, override this to choose it per TileEntity.
+	 */
+	protected TransferMode getTransferMode() {
+		return Machine.transferMode;
+	}
+
+	/**
+	 * Returns whether or not this can extract energy to the given side.
+	 */
+	public boolean canExtractTo(ForgeDirection side) {
+		return (extractingSideMask & (1 << side.ordinal())) != 0;
+	}
+
+	/**
+	 * Returns the mask of sides this can extract energy to in it's current facing, only called when the facing changes.
+	 * It's also called from the constructor, so it must only depend on the facing.
+	 */
+	protected int getExtractingSides() {
+		return 0;
+	}
+
+	/**
+	 * Returns the IEnergyReceiver on the given side of this, or null if there is none.
+	 */
+	protected IEnergyReceiver getAdjacentReceiver(ForgeDirection direction) {
+		if (isAdjacentReceiversDirty) {
+			for (ForgeDirection side : ForgeDirection.VALID_DIRECTIONS) {
+				int x = xCoord + side.offsetX;
+				int y = yCoord + side.offsetY;
+				int z = zCoord + side.offsetZ;
+				TileEntity tileEntity = null;
+
+				// Only look at sides energy can go to, and never load the chunk of a neighbour that was just unloaded.
+				if (canExtractTo(side) && worldObj.blockExists(x, y, z)) {
+					tileEntity = worldObj.getTileEntity(x, y, z);
+				}
+
+				adjacentReceivers[side.ordinal()] = tileEntity instanceof IEnergyReceiver ? (IEnergyReceiver) tileEntity : null;
+			}
+
+			isAdjacentReceiversDirty = false;
+		}
+
+		IEnergyReceiver receiver = adjacentReceivers[direction.ordinal()];
+
+		// A removed neighbour always notifies us, this only guards against mods replacing TileEntities silently.
+		if (receiver != null && ((TileEntity) receiver).isInvalid()) {
+			isAdjacentReceiversDirty = true;
+
+			return null;
+		}
+
+		return receiver;
+	}
+
+	/**
+	 * Makes the adjacent IEnergyReceivers be looked up again, called whenever a neighbour changes.
+	 */
+	public void invalidateAdjacentReceivers() {
+		isAdjacentReceiversDirty = true;
+		isSleeping = false;
+	}
+
+	/**
+	 * Returns whether or not there is an IEnergyReceiver on any side this can extract energy to.
+	 */
+	protected boolean hasAdjacentReceiver() {
+		for (ForgeDirection direction : ForgeDirection.VALID_DIRECTIONS) {
+			if (canExtractTo(direction) && getAdjacentReceiver(direction) != null) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Returns whether or not this is skipping energy distribution until it receives energy or a neighbour changes.
+	 */
+	public boolean isSleeping() {
+		return isSleeping;
+	}
+
+	/**
+	 * Passes energy directly to the adjacent receivers without storing it, limited by the transfer rate of this.
+	 * @return the energy the receivers accepted.
+	 */
+	private int passEnergyThru(int maxReceive, boolean simulate) {
+		if (isPassingEnergyThru || !MachineUtils.canFunction(this)) {
+			return 0;
+		}
+
+		int energyLeft = Math.min(maxReceive, storage.getMaxReceive());
+		int energyPassed = 0;
+
+		isPassingEnergyThru = true;
+
+		try {
+			for (ForgeDirection direction : ForgeDirection.VALID_DIRECTIONS) {
+				IEnergyReceiver receiver = canExtractTo(direction) && energyLeft > energyPassed ? getAdjacentReceiver(direction) : null;
+
+				if (receiver != null) {
+					energyPassed += receiver.receiveEnergy(direction.getOpposite(), energyLeft - energyPassed, simulate);
+				}
+			}
+		} finally {
+			isPassingEnergyThru = false;
+		}
+
+		if (!simulate && energyPassed > 0) {
+			// Energy passed thru counts as both received and extracted, so the audit checks that none of it was stored.
+			if (ledger != null) {
+				ledger.addReceived(energyPassed);
+				ledger.addExtracted(energyPassed);
+			}
+
+			onEnergyPassedThru(energyPassed);
+		}
+
+		return energyPassed;
+	}
+
+	/**
+	 * Called when energy was passed thru this without being stored.
+	 * @param energy the energy passed thru.
+	 */
+	protected void onEnergyPassedThru(int energy) {
+
 	}
 
 	/**
 	 * Transfer energy to any blocks demanding energy that are connected to
-	 * this one.
+	 * this one, offering what can be extracted and then extracting only what was accepted.
+	 * @return the energy distributed.
 	 */
-	protected void distributeEnergy() {
+	protected int distributeEnergy() {
+		int energyDistributed = 0;
+
 		if (MachineUtils.canFunction(this)) {
-			for (ForgeDirection direction : getExtractingDirections()) {
-				TileEntity tileEntity = worldObj.getTileEntity(xCoord + direction.offsetX, yCoord + direction.offsetY, zCoord + direction.offsetZ);
+			for (ForgeDirection direction : ForgeDirection.VALID_DIRECTIONS) {
+				IEnergyReceiver receiver = canExtractTo(direction) ? getAdjacentReceiver(direction) : null;
+
+				if (receiver != null) {
+					int energyOffered = getExtract();
 
-				if (tileEntity instanceof IEnergyReceiver) {
-					IEnergyReceiver receiver = (IEnergyReceiver) tileEntity;
-					int actualEnergyAmount = extractEnergy(direction, getExtract(), true);
+					if (energyOffered > 0) {
+						int energyAccepted = receiver.receiveEnergy(direction.getOpposite(), energyOffered, false);
 
-					if (actualEnergyAmount > 0) {
-						extractEnergy(direction, receiver.receiveEnergy(direction.getOpposite(), actualEnergyAmount, false), false);
+						if (energyAccepted > 0) {
+							energyDistributed += extractEnergy(direction, energyAccepted, false);
+						}
 					}
 				}
 			}
 		}
+
+		return energyDistributed;
 	}
 }
@@ -4,30 +4,57 @@ import cofh.api.energy.IEnergyReceiver;
 import net.minecraftforge.common.util.ForgeDirection;
 import org.halvors.electrometrics.common.base.MachineType;
 
-import java.util.EnumSet;
-
 /**
  * When extended, this makes a TileEntity able to receive electricity.
  *
  * @author halvors
  */
 public class TileEntityElectricityReceiver extends TileEntityElectricityStorage implements IEnergyReceiver {
+	// The mask of all valid sides.
+	protected static final int ALL_SIDES = (1 << ForgeDirection.VALID_DIRECTIONS.length) - 1;
+
+	// The mask of sides this can receive energy from, indexed by ForgeDirection ordinal.
+	private int receivingSideMask;
+
 	protected TileEntityElectricityReceiver(MachineType machineType, int maxEnergy) {
 		super(machineType, maxEnergy);
+
+		receivingSideMask = getReceivingSides();
 	}
 
 	protected TileEntityElectricityReceiver(MachineType machineType, int maxEnergy, int maxTransfer) {
 		super(machineType, maxEnergy, maxTransfer);
+
+		receivingSideMask = getReceivingSides();
 	}
 
 	protected TileEntityElectricityReceiver(MachineType machineType, int maxEnergy, int maxReceive, int maxExtract) {
 		super(machineType, maxEnergy, maxReceive, maxExtract);
+
+		receivingSideMask = getReceivingSides();
+	}
+
+	@Override
+	protected void onFacingChanged() {
+		super.onFacingChanged();
+
+		receivingSideMask = getReceivingSides();
 	}
 
 	@Override
 	public int receiveEnergy(ForgeDirection from, int maxReceive, boolean simulate) {
-		if (getReceivingDirections().contains(from)) {
-			return storage.receiveEnergy(maxReceive, simulate);
+		if (canReceiveFrom(from)) {
+			int energyReceived = storage.receiveEnergy(maxReceive, simulate);
+
+			if (!simulate && energyReceived > 0) {
+				markForSync(FIELD_ENERGY_STORED);
+
+				if (ledger != null) {
+					ledger.addReceived(energyReceived);
+				}
+			}
+
+			return energyReceived;
 		}
 
 		return 0;
@@ -45,13 +72,21 @@ public class TileEntityElectricityReceiver extends TileEntityElectricityStorage
 
 	@Override
 	public boolean canConnectEnergy(ForgeDirection from) {
-		return getReceivingDirections().contains(from);
+		return canReceiveFrom(from);
 	}
 
-	protected EnumSet<ForgeDirection> getReceivingDirections() {
-		EnumSet<ForgeDirection> directions = EnumSet.allOf(ForgeDirection.class);
-		directions.remove(ForgeDirection.UNKNOWN);
+	/**
+	 * Returns whether or not this can receive energy from the given side.
+	 */
+	public boolean canReceiveFrom(ForgeDirection side) {
+		return (receivingSideMask & (1 << side.ordinal())) != 0;
+	}
 
-		return directions;
+	/**
+	 * Returns the mask of sides this can receive energy from in it's current facing, only called when the facing changes.
+	 * It's also called from the constructor, so it must only depend on the facing.
+	 */
+	protected int getReceivingSides() {
+		return ALL_SIDES;
 	}
 }
\ No newline at end of file
@@ -1,14 +1,12 @@
 package org.halvors.electrometrics.common.tile.machine;
 
 import cofh.api.energy.EnergyStorage;
-import io.netty.buffer.ByteBuf;
 import net.minecraft.nbt.NBTTagCompound;
 import org.halvors.electrometrics.common.base.MachineType;
 import org.halvors.electrometrics.common.base.tile.ITileNetworkable;
-import org.halvors.electrometrics.common.network.NetworkHandler;
-import org.halvors.electrometrics.common.network.packet.PacketRequestData;
-
-import java.util.List;
+import org.halvors.electrometrics.common.network.PacketReader;
+import org.halvors.electrometrics.common.network.PacketWriter;
+import org.halvors.electrometrics.common.profiler.EnergyAuditor;
 
 /**
  * This provides electricity storage to a TileEntity when extended.
@@ -16,9 +14,15 @@ import java.util.List;
  * @author halvors
  */
 public class TileEntityElectricityStorage extends TileEntityElectricMachine implements ITileNetworkable {
+	// Synchronized fields.
+	protected static final int FIELD_ENERGY_STORED = 1 << 1;
+
 	// The internal energy storage.
 	protected final EnergyStorage storage;
 
+	// The energy moved in and out since the last audit, only kept while the EnergyAuditor is enabled.
+	protected EnergyAuditor.Ledger ledger;
+
 	protected TileEntityElectricityStorage(MachineType machineType, int maxEnergy) {
 		super(machineType);
 
@@ -39,12 +43,12 @@ public class TileEntityElectricityStorage extends TileEntityElectricMachine impl
 	}
 
 	@Override
-	public void validate() {
-		super.validate();
-
-		if (worldObj.isRemote) {
-			NetworkHandler.sendToServer(new PacketRequestData(this));
+	protected void update() {
+		if (!worldObj.isRemote) {
+			audit();
 		}
+
+		super.update();
 	}
 
 	@Override
@@ -62,25 +66,51 @@ public class TileEntityElectricityStorage extends TileEntityElectricMachine impl
 	}
 
 	@Override
-	public void handlePacketData(ByteBuf dataStream) throws Exception {
-		super.handlePacketData(dataStream);
+	public void readPacketData(PacketReader reader, int fields) throws Exception {
+		super.readPacketData(reader, fields);
+
+		if ((fields & FIELD_ENERGY_STORED) != 0) {
+			storage.setEnergyStored(reader.readVarInt());
+		}
 
-		storage.setEnergyStored(dataStream.readInt());
+		// The energy was set from outside, so the audit starts over.
+		ledger = null;
 	}
 
 	@Override
-	public List<Object> getPacketData(List<Object> objects) {
-		super.getPacketData(objects);
+	public void writePacketData(PacketWriter writer, int fields) {
+		super.writePacketData(writer, fields);
 
-		objects.add(storage.getEnergyStored());
-
-		return objects;
+		if ((fields & FIELD_ENERGY_STORED) != 0) {
+			writer.writeVarInt(storage.getEnergyStored());
+		}
 	}
 
 	public EnergyStorage getStorage() {
 		return storage;
 	}
 
+	/**
+	 * Returns the total energy counted by this, used to audit the counting. EnergyAuditor.NOT_COUNTED if it doesn't count.
+	 */
+	protected long getCountedEnergy() {
+		return EnergyAuditor.NOT_COUNTED;
+	}
+
+	/**
+	 * Checks the energy moved since the last audit while the EnergyAuditor is enabled. Done every tick, TileEntities that
+	 * don't tick have to call this regularly themselves.
+	 */
+	protected void audit() {
+		if (!EnergyAuditor.isEnabled()) {
+			ledger = null;
+		} else if (ledger == null) {
+			ledger = new EnergyAuditor.Ledger(storage.getEnergyStored(), getCountedEnergy());
+		} else {
+			EnergyAuditor.check(this, ledger, storage.getEnergyStored(), getCountedEnergy());
+		}
+	}
+
 	protected int getExtract() {
 		return Math.min(storage.getMaxExtract(), storage.getEnergyStored());
 	}
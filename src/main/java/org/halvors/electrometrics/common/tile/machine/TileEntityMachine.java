@@ -3,6 +3,8 @@ package org.halvors.electrometrics.common.tile.machine;
 import org.halvors.electrometrics.Electrometrics;
 import org.halvors.electrometrics.common.ConfigurationManager.General;
 import org.halvors.electrometrics.common.base.MachineType;
+import org.halvors.electrometrics.common.profiler.TileProfiler;
+import org.halvors.electrometrics.common.profiler.TileProfiler.Section;
 import org.halvors.electrometrics.common.tile.TileEntityRotatable;
 import org.halvors.electrometrics.common.util.location.Location;
 
@@ -16,9 +18,18 @@ public class TileEntityMachine extends TileEntityRotatable {
 	}
 
     @Override
-    public void updateEntity() {
-        super.updateEntity();
+    public final void updateEntity() {
+        long startTime = TileProfiler.start();
 
+        update();
+
+        TileProfiler.stop(this, Section.UPDATE, startTime);
+    }
+
+    /**
+     * Called every tick, override this rather than updateEntity() so that the whole update is profiled.
+     */
+    protected void update() {
         // Remove disabled blocks.
         if (!worldObj.isRemote && General.destroyDisabledBlocks) {
             MachineType machineType = MachineType.getType(getBlockType(), getBlockMetadata());
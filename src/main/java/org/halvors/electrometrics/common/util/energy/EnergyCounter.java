@@ -0,0 +1,140 @@
+package org.halvors.electrometrics.common.util.energy;
+
+import net.minecraft.nbt.NBTTagCompound;
+import org.halvors.electrometrics.common.network.PacketReader;
+import org.halvors.electrometrics.common.network.PacketWriter;
+
+import java.math.BigInteger;
+
+/**
+ * This is a 128-bit counter of energy, stored as an unsigned low long and a high long holding it's overflow. Energy is
+ * always whole units, so unlike a double it never loses precision however much has been counted.
+ *
+ * @author halvors
+ */
+public class EnergyCounter {
+	// 2^64, the value of one unit of the high part.
+	private static final double HIGH_UNIT = 18446744073709551616.0;
+
+	// The lower 64 bits, treated as unsigned.
+	private long low;
+
+	// The upper 64 bits.
+	private long high;
+
+	public EnergyCounter() {
+
+	}
+
+	public EnergyCounter(long low, long high) {
+		this.low = low;
+		this.high = high;
+	}
+
+	/**
+	 * Adds an amount of energy to this counter.
+	 * @param amount the amount of energy to add, never negative.
+	 */
+	public void add(long amount) {
+		long sum = low + amount;
+
+		// Unsigned comparison, the sum wrapped around if it is smaller than what we had.
+		if ((sum ^ Long.MIN_VALUE) < (low ^ Long.MIN_VALUE)) {
+			high++;
+		}
+
+		low = sum;
+	}
+
+	public void set(EnergyCounter counter) {
+		low = counter.low;
+		high = counter.high;
+	}
+
+	public void reset() {
+		low = 0;
+		high = 0;
+	}
+
+	public boolean isZero() {
+		return low == 0 && high == 0;
+	}
+
+	public long getLow() {
+		return low;
+	}
+
+	public long getHigh() {
+		return high;
+	}
+
+	/**
+	 * Returns the approximate value of this counter, only meant for displaying it.
+	 */
+	public double doubleValue() {
+		return high * HIGH_UNIT + (low >>> 1) * 2.0 + (low & 1);
+	}
+
+	/**
+	 * Returns the exact value of this counter.
+	 */
+	public BigInteger toBigInteger() {
+		return BigInteger.valueOf(high).shiftLeft(64).add(BigInteger.valueOf(low >>> 1).shiftLeft(1)).add(BigInteger.valueOf(low & 1));
+	}
+
+	public void readFromNBT(NBTTagCompound nbtTagCompound, String name) {
+		if (nbtTagCompound.hasKey(name + "Low")) {
+			low = nbtTagCompound.getLong(name + "Low");
+			high = nbtTagCompound.getLong(name + "High");
+		} else {
+			// Migrate the double that was stored by earlier versions.
+			setFromDouble(nbtTagCompound.getDouble(name));
+		}
+	}
+
+	public void writeToNBT(NBTTagCompound nbtTagCompound, String name) {
+		nbtTagCompound.setLong(name + "Low", low);
+		nbtTagCompound.setLong(name + "High", high);
+
+		// Drop the double stored by earlier versions, so that it's not migrated again.
+		nbtTagCompound.removeTag(name);
+	}
+
+	public void readPacketData(PacketReader reader) {
+		low = reader.readVarLong();
+		high = reader.readVarLong();
+	}
+
+	public void writePacketData(PacketWriter writer) {
+		writer.writeVarLong(low);
+		writer.writeVarLong(high);
+	}
+
+	private void setFromDouble(double value) {
+		if (value <= 0 || Double.isNaN(value)) {
+			reset();
+		} else {
+			high = (long) (value / HIGH_UNIT);
+
+			double remainder = value - high * HIGH_UNIT;
+
+			// Casting saturates at Long.MAX_VALUE, so values in the upper half of the unsigned range are converted halved.
+			low = remainder >= Long.MAX_VALUE ? ((long) (remainder / 2)) << 1 : (long) remainder;
+		}
+	}
+
+	@Override
+	public boolean equals(Object object) {
+		return object instanceof EnergyCounter && ((EnergyCounter) object).low == low && ((EnergyCounter) object).high == high;
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * (int) (high ^ (high >>> 32)) + (int) (low ^ (low >>> 32));
+	}
+
+	@Override
+	public String toString() {
+		return high == 0 && low >= 0 ? Long.toString(low) : toBigInteger().toString();
+	}
+}
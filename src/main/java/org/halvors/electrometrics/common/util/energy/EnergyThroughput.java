@@ -0,0 +1,298 @@
+package org.halvors.electrometrics.common.util.energy;
+
+/**
+ * This keeps a history of the energy passing thru something, as per-tick samples rolled up into fixed-size rings of
+ * per-second, per-minute and per-hour buckets. Adding energy and advancing a tick are constant time and never allocate,
+ * and advancing any number of ticks at once takes at most as long as there are buckets.
+ *
+ * @author halvors
+ */
+public class EnergyThroughput {
+	private static final int TICKS_PER_SECOND = 20;
+
+	/**
+	 * The periods the average and peak throughput can be queried over.
+	 */
+	public enum Window {
+		MINUTE,
+		HOUR,
+		DAY
+	}
+
+	// The last 24 hours, the last 60 minutes and the last 60 seconds, each summing up into the one before it.
+	private final Ring hours = new Ring(24, 60 * 60 * TICKS_PER_SECOND, null);
+	private final Ring minutes = new Ring(60, 60 * TICKS_PER_SECOND, hours);
+	private final Ring seconds = new Ring(60, TICKS_PER_SECOND, minutes);
+
+	// The energy passed thru during the current tick.
+	private long tickEnergy;
+
+	// The energy passed thru and the highest tick, during the current second.
+	private long secondEnergy;
+	private long secondPeak;
+	private int secondTicks;
+
+	// The energy passed thru during the last completed tick.
+	private long lastTickEnergy;
+
+	/**
+	 * Adds energy that has passed thru during the current tick.
+	 * @param amount the amount of energy.
+	 */
+	public void add(long amount) {
+		tickEnergy += amount;
+	}
+
+	/**
+	 * Completes the current tick, should be called exactly once per tick.
+	 * @return true if this completed a second.
+	 */
+	public boolean tick() {
+		lastTickEnergy = tickEnergy;
+		secondEnergy += tickEnergy;
+		secondPeak = Math.max(secondPeak, tickEnergy);
+		tickEnergy = 0;
+
+		if (++secondTicks < TICKS_PER_SECOND) {
+			return false;
+		}
+
+		completeSecond();
+
+		return true;
+	}
+
+	/**
+	 * Completes a number of ticks at once, the same as calling tick() that many times. Only the current tick can have
+	 * energy, so the ticks after it are skipped in whole seconds, and the rings only clear the buckets they skip.
+	 * @param ticks the number of ticks.
+	 * @return true if this completed a second.
+	 */
+	public boolean advance(long ticks) {
+		if (ticks <= 0) {
+			return false;
+		}
+
+		boolean hasCompletedSecond = tick();
+		long emptyTicks = ticks - 1;
+
+		if (emptyTicks == 0) {
+			return hasCompletedSecond;
+		}
+
+		lastTickEnergy = 0;
+
+		// Finish the current second, if the ticks reach the end of it.
+		int ticksLeftInSecond = TICKS_PER_SECOND - secondTicks;
+
+		if (emptyTicks < ticksLeftInSecond) {
+			secondTicks += emptyTicks;
+
+			return hasCompletedSecond;
+		}
+
+		completeSecond();
+
+		// Skip the whole seconds after it, and start the last one.
+		emptyTicks -= ticksLeftInSecond;
+		seconds.skip(emptyTicks / TICKS_PER_SECOND);
+		secondTicks = (int) (emptyTicks % TICKS_PER_SECOND);
+
+		return true;
+	}
+
+	/**
+	 * Returns how many more ticks it takes to complete the current minute.
+	 */
+	public int getTicksLeftInMinute() {
+		return (seconds.energy.length - seconds.pendingBuckets) * TICKS_PER_SECOND - secondTicks;
+	}
+
+	/**
+	 * Returns the energy passed thru during the last tick.
+	 */
+	public long getLastTick() {
+		return lastTickEnergy;
+	}
+
+	/**
+	 * Returns the energy passed thru during the last completed minute.
+	 */
+	public long getLastMinuteEnergy() {
+		return seconds.bucketEnergy;
+	}
+
+	/**
+	 * Returns the most energy passed thru in a single tick during the last completed minute.
+	 */
+	public long getLastMinutePeak() {
+		return seconds.bucketPeak;
+	}
+
+	/**
+	 * Returns the average energy per tick during the last completed second.
+	 */
+	public double getCurrent() {
+		return seconds.getLast() / (double) TICKS_PER_SECOND;
+	}
+
+	/**
+	 * Returns the average energy per tick over the given window, or as much of it as has been recorded.
+	 */
+	public double getAverage(Window window) {
+		return getRing(window).getAverage();
+	}
+
+	/**
+	 * Returns the highest energy passed thru in a single tick over the given window.
+	 */
+	public long getPeak(Window window) {
+		return getRing(window).getPeak();
+	}
+
+	private void completeSecond() {
+		seconds.add(secondEnergy, secondPeak);
+
+		secondEnergy = 0;
+		secondPeak = 0;
+		secondTicks = 0;
+	}
+
+	private Ring getRing(Window window) {
+		switch (window) {
+			case HOUR:
+				return minutes;
+
+			case DAY:
+				return hours;
+
+			default:
+				return seconds;
+		}
+	}
+
+	/**
+	 * A ring of buckets, which also sums up the buckets added to it into a bucket for the next ring.
+	 */
+	private static class Ring {
+		private final long[] energy;
+		private final long[] peaks;
+		private final int ticksPerBucket;
+
+		// The ring the completed buckets are added to, or null if there is none.
+		private final Ring next;
+
+		// The index the next bucket is written to, and how many buckets have been written.
+		private int index;
+		private int size;
+
+		// The sum of all buckets in this ring.
+		private long total;
+
+		// The bucket for the next ring, summed up from the buckets added since it was last completed.
+		private long bucketEnergy;
+		private long bucketPeak;
+		private long pendingEnergy;
+		private long pendingPeak;
+		private int pendingBuckets;
+
+		private Ring(int length, int ticksPerBucket, Ring next) {
+			this.energy = new long[length];
+			this.peaks = new long[length];
+			this.ticksPerBucket = ticksPerBucket;
+			this.next = next;
+		}
+
+		/**
+		 * Adds a bucket, overwriting the oldest one once the ring is full.
+		 * @return true if this completed a bucket for the next ring.
+		 */
+		private boolean add(long bucketEnergy, long bucketPeak) {
+			total += bucketEnergy - energy[index];
+			energy[index] = bucketEnergy;
+			peaks[index] = bucketPeak;
+			index = (index + 1) % energy.length;
+			size = Math.min(size + 1, energy.length);
+
+			pendingEnergy += bucketEnergy;
+			pendingPeak = Math.max(pendingPeak, bucketPeak);
+
+			if (++pendingBuckets < energy.length) {
+				return false;
+			}
+
+			this.bucketEnergy = pendingEnergy;
+			this.bucketPeak = pendingPeak;
+			pendingEnergy = 0;
+			pendingPeak = 0;
+			pendingBuckets = 0;
+
+			if (next != null) {
+				next.add(this.bucketEnergy, this.bucketPeak);
+			}
+
+			return true;
+		}
+
+		/**
+		 * Adds a number of empty buckets, only clearing as many buckets as the ring has.
+		 * @return true if this completed a bucket for the next ring.
+		 */
+		private boolean skip(long count) {
+			if (count <= 0) {
+				return false;
+			}
+
+			int cleared = (int) Math.min(count, energy.length);
+
+			for (int i = 0; i < cleared; i++) {
+				total -= energy[index];
+				energy[index] = 0;
+				peaks[index] = 0;
+				index = (index + 1) % energy.length;
+			}
+
+			index = (int) ((index + count - cleared) % energy.length);
+			size = (int) Math.min(size + count, energy.length);
+
+			long buckets = pendingBuckets + count;
+			long completed = buckets / energy.length;
+			pendingBuckets = (int) (buckets % energy.length);
+
+			if (completed == 0) {
+				return false;
+			}
+
+			// Only the first completed bucket can have energy, the ones after it are empty.
+			if (next != null) {
+				next.add(pendingEnergy, pendingPeak);
+				next.skip(completed - 1);
+			}
+
+			bucketEnergy = completed == 1 ? pendingEnergy : 0;
+			bucketPeak = completed == 1 ? pendingPeak : 0;
+			pendingEnergy = 0;
+			pendingPeak = 0;
+
+			return true;
+		}
+
+		private long getLast() {
+			return size > 0 ? energy[(index + energy.length - 1) % energy.length] : 0;
+		}
+
+		private double getAverage() {
+			return size > 0 ? total / ((double) size * ticksPerBucket) : 0;
+		}
+
+		private long getPeak() {
+			long peak = 0;
+
+			for (int i = 0; i < size; i++) {
+				peak = Math.max(peak, peaks[i]);
+			}
+
+			return peak;
+		}
+	}
+}
@@ -100,4 +100,14 @@ public class Chunk {
 
 		return false;
 	}
-}
\ No newline at end of file
+
+	@Override
+	public int hashCode() {
+		int code = 1;
+		code = 31 * code + dimensionId;
+		code = 31 * code + x;
+		code = 31 * code + z;
+
+		return code;
+	}
+}